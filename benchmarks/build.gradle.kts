@@ -0,0 +1,19 @@
+plugins {
+    id("me.champeau.jmh") version "0.7.2"
+}
+
+dependencies {
+    implementation(project(":minesweeper"))
+    implementation(project(":twenty48"))
+}
+
+jmh {
+    jmhVersion = "1.37"
+    // allocation rate per operation, to catch hot paths that start allocating again
+    profilers.add("gc")
+    fork = 1
+    warmupIterations = 3
+    iterations = 5
+    // -Pjmh.include=<regex> runs only the matching benchmarks
+    (findProperty("jmh.include") as String?)?.let { includes.add(it) }
+}
@@ -0,0 +1,18 @@
+package dev.rdh.games;
+
+import java.io.OutputStream;
+
+/**
+ * Shared setup for the benchmarks.
+ */
+public final class Benchmarks {
+	private Benchmarks() {
+	}
+
+	/**
+	 * @return a console that really renders, but into a stream that throws the output away, with no terminal to set up
+	 */
+	public static Console console(Input input) {
+		return new Console(input, OutputStream.nullOutputStream(), Terminal.NONE);
+	}
+}
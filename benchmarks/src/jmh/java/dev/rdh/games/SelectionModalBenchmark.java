@@ -0,0 +1,53 @@
+package dev.rdh.games;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shows a menu, moves the selection once and picks it: one full draw and one redraw.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SelectionModalBenchmark {
+	@Param({"3", "100", "10000"})
+	public int options;
+
+	private final Input input = new Input();
+	private Console console;
+	private SelectionModal modal;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		console = Benchmarks.console(input);
+		List<String> items = new ArrayList<>(options);
+		for(int i = 0; i < options; i++) {
+			items.add("Option " + i);
+		}
+		modal = SelectionModal.of("Choose an option:", items);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		console.close();
+	}
+
+	@Benchmark
+	public int displayOn() {
+		input.push(KeyEvent.of(Key.DOWN));
+		input.push(KeyEvent.of(Key.ENTER));
+		return modal.displayOn(console);
+	}
+}
@@ -0,0 +1,145 @@
+package dev.rdh.minesweeper;
+
+import dev.rdh.games.Benchmarks;
+import dev.rdh.games.Console;
+import dev.rdh.games.Input;
+import dev.rdh.games.Key;
+import dev.rdh.games.Screen;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Board operations at the standard sizes and at one far bigger than a terminal, where per-cell costs dominate.
+ * The board changed by each operation is set up again outside the measurement.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BoardBenchmark {
+	@Param({"beginner", "expert", "huge"})
+	public String size;
+
+	private Board board;
+	private Console console;
+	private Screen screen;
+
+	/**
+	 * how far right of the first click the cursor was moved to chord, so it can be moved back
+	 */
+	private int chordOffset;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		board = switch(size) {
+			case "beginner" -> board(Difficulty.BEGINNER.getWidth(), Difficulty.BEGINNER.getHeight(), Difficulty.BEGINNER.getNumMines());
+			case "expert" -> board(Difficulty.EXPERT.getWidth(), Difficulty.EXPERT.getHeight(), Difficulty.EXPERT.getNumMines());
+			case "huge" -> board(1000, 1000, 160_000);
+			default -> throw new IllegalArgumentException("Unknown size: " + size);
+		};
+		console = Benchmarks.console(new Input());
+		screen = console.screen(board.getWidth() * 2, board.getHeight() + 1);
+	}
+
+	private static Board board(int width, int height, int numMines) {
+		return new Board(width, height, numMines, width + "x" + height, 42);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		console.close();
+	}
+
+	/**
+	 * Places the mines and floods out from the first click, which the first reveal always does.
+	 */
+	@State(Scope.Thread)
+	public static class Fresh {
+		@Setup(Level.Invocation)
+		public void setup(BoardBenchmark benchmark) {
+			benchmark.board.regenerate();
+		}
+	}
+
+	/**
+	 * A started board with the cursor on the first numbered cell right of the first click, its mines flagged,
+	 * so that chording there reveals the hidden cells around it.
+	 */
+	@State(Scope.Thread)
+	public static class Chordable {
+		@Setup(Level.Invocation)
+		public void setup(BoardBenchmark benchmark) {
+			Board board = benchmark.board;
+			for(; benchmark.chordOffset > 0; benchmark.chordOffset--) {
+				board.handleMovement(Key.LEFT);
+			}
+			board.regenerate();
+			board.reveal();
+
+			MineField field = board.getField();
+			int x = board.getCursor() % board.getWidth(), y = board.getCursor() / board.getWidth();
+			while(x < board.getWidth() - 1 && field.getAdjacentMines(x, y) == 0) {
+				board.handleMovement(Key.RIGHT);
+				benchmark.chordOffset++;
+				x++;
+			}
+
+			for(int y1 = Math.max(y - 1, 0); y1 <= Math.min(y + 1, board.getHeight() - 1); y1++) {
+				for(int x1 = Math.max(x - 1, 0); x1 <= Math.min(x + 1, board.getWidth() - 1); x1++) {
+					if(field.isMine(x1, y1) && !field.isFlagged(x1, y1)) {
+						field.toggleFlag(x1, y1);
+					}
+				}
+			}
+			// as the game does after every key, so the chord tracks its changes instead of redrawing everything
+			board.drawChanges(benchmark.screen);
+		}
+	}
+
+	@Benchmark
+	public void regenerate() {
+		board.regenerate();
+	}
+
+	@Benchmark
+	public Object floodReveal(Fresh fresh) {
+		return board.reveal();
+	}
+
+	@Benchmark
+	public Object chord(Chordable chordable) {
+		return board.chord();
+	}
+
+	/**
+	 * Draws the whole board and repaints every cell, as after the terminal is cleared.
+	 */
+	@Benchmark
+	public void draw() {
+		board.invalidate();
+		screen.invalidate();
+		board.drawChanges(screen);
+		screen.render();
+	}
+
+	/**
+	 * Moves the cursor and renders just what changed, as on most key presses.
+	 */
+	@Benchmark
+	public void drawChanges() {
+		board.handleMovement(Key.UP);
+		board.handleMovement(Key.DOWN);
+		board.drawChanges(screen);
+		screen.render();
+	}
+}
@@ -0,0 +1,118 @@
+package dev.rdh.twenty48;
+
+import dev.rdh.games.Benchmarks;
+import dev.rdh.games.Console;
+import dev.rdh.games.Input;
+import dev.rdh.games.Screen;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves, spawns and rendering, on boards taken from random games so that moves merge and slide like they do in play.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BoardBenchmark {
+	private static final int BOARDS = 1024;
+
+	/**
+	 * tiles a new board can still take, since it starts with two
+	 */
+	private static final int SPAWNS = 14;
+
+	private final long[] boards = new long[BOARDS];
+	private final SplittableRandom random = new SplittableRandom(42);
+
+	private Board board;
+	private Console console;
+	private Screen screen;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		for(int i = 0; i < BOARDS; i++) {
+			Board game = new Board(random.split());
+			int moves = random.nextInt(200);
+			for(int j = 0; j < moves && game.canMove(); j++) {
+				game.move(Direction.VALUES[random.nextInt(4)]);
+			}
+			boards[i] = game.getBits();
+		}
+
+		board = new Board(random.split());
+		console = Benchmarks.console(new Input());
+		screen = console.screen(Board.WIDTH, Board.HEIGHT);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		console.close();
+	}
+
+	@State(Scope.Thread)
+	public static class Moving {
+		@Param({"UP", "DOWN", "LEFT", "RIGHT"})
+		public Direction direction;
+	}
+
+	/**
+	 * What each of {@code moveUp}, {@code moveDown}, {@code moveLeft} and {@code moveRight} does to the tiles.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(BOARDS)
+	public void slide(Moving moving, Blackhole blackhole) {
+		for(long bits : boards) {
+			blackhole.consume(Bitboard.move(bits, moving.direction));
+		}
+	}
+
+	/**
+	 * A move in the game, with its score, empty count and new tile, or the opposite move when that one is stuck,
+	 * starting over once the game ends.
+	 */
+	@Benchmark
+	public boolean move(Moving moving) {
+		if(!board.canMove()) {
+			board = new Board(random.split());
+		}
+		Direction direction = moving.direction;
+		return board.move(direction) || board.move(Direction.VALUES[direction.ordinal() ^ 1]);
+	}
+
+	/**
+	 * Fills a new board, so a new board is made every {@value #SPAWNS} spawns.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(SPAWNS)
+	public long addRandomCell() {
+		Board game = new Board(random.split());
+		for(int i = 0; i < SPAWNS; i++) {
+			game.addRandomCell();
+		}
+		return game.getBits();
+	}
+
+	/**
+	 * Draws the board and repaints every cell, as after the terminal is cleared.
+	 */
+	@Benchmark
+	public void draw() {
+		screen.invalidate();
+		board.draw(screen);
+		screen.render();
+	}
+}
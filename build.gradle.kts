@@ -31,6 +31,8 @@ allprojects {
     }
 
     tasks.jar {
+        // lets FfmTerminal call tcsetattr without the JVM warning about it
+        manifest.attributes["Enable-Native-Access"] = "ALL-UNNAMED"
         doLast {
             compressJar(archiveFile.get().asFile)
         }
@@ -45,9 +47,11 @@ allprojects {
 }
 
 subprojects {
-    if(name != "common") {
+    if(name != "common" && name != "processor") {
         dependencies {
             implementation(project(":common"))
+            // generates the codecs for @Settings classes, next to lombok
+            annotationProcessor(project(":processor"))
         }
 
         tasks.jar {
@@ -58,8 +62,11 @@ subprojects {
 
     base.archivesName = project.name.lowercase()
 
-    rootProject.dependencies {
-        implementation(project)
+    // benchmarks only run through jmh and the processor only runs while compiling, so neither belongs in the combined jar
+    if(name != "benchmarks" && name != "processor") {
+        rootProject.dependencies {
+            implementation(project)
+        }
     }
 }
 
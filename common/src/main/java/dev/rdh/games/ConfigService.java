@@ -0,0 +1,209 @@
+package dev.rdh.games;
+
+import dev.rdh.games.util.Threads;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Keeps a {@link Settings} class loaded for the whole process, so every game and menu asking for it shares one read
+ * and the file is only read again after it changes.
+ * <p>
+ * The loaded settings are kept private and never changed; everyone asking gets a copy of their own, and saving, or the
+ * file changing on disk, replaces them. One thread watches the settings directory for every service, and only marks a
+ * service stale; the file is read again the next time the settings are asked for, unless what changed it was the
+ * service's own save. Where the directory can't be watched, each request checks the file's size, modification time and
+ * identity instead.
+ */
+public final class ConfigService<T> {
+	private static final Map<Path, ConfigService<?>> SERVICES = new ConcurrentHashMap<>();
+
+	/**
+	 * watches the directories of every service, or {@code null} if the file system can't
+	 */
+	private static WatchService watcher;
+
+	private final SettingsCodec<T> codec;
+	private final Supplier<T> defaults;
+	private final SettingsFile<T> file;
+
+	/**
+	 * whether the directory is being watched, and so whether {@link #stale} can be trusted to notice changes
+	 */
+	private final boolean watched;
+
+	private volatile boolean stale = true;
+	private volatile T snapshot;
+
+	/**
+	 * the file as it was when last read or written, or {@code null} if it didn't exist
+	 */
+	private BasicFileAttributes attributes;
+
+	/**
+	 * whether {@link #attributes} are of the service's own save, rather than of a file it read
+	 */
+	private boolean written;
+
+	private ConfigService(SettingsCodec<T> codec, Supplier<T> defaults) {
+		this.codec = codec;
+		this.defaults = defaults;
+		this.file = new SettingsFile<>(codec);
+		this.watched = watch(file.getPath().getParent());
+	}
+
+	/**
+	 * @param defaults makes a new instance of the settings, with every setting at its default
+	 * @return the service for the file {@code codec} reads, the same one every time it's asked for
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> ConfigService<T> of(SettingsCodec<T> codec, Supplier<T> defaults) {
+		Path path = SaveFile.directory().resolve(codec.file()).toAbsolutePath();
+		ConfigService<?> service = SERVICES.computeIfAbsent(path, p -> new ConfigService<>(codec, defaults));
+		if(service.codec.getClass() != codec.getClass()) {
+			throw new IllegalStateException(codec.file() + " is already read by " + service.codec.getClass().getName());
+		}
+		return (ConfigService<T>) service;
+	}
+
+	/**
+	 * @return a copy of the settings as last saved, which the caller is free to change and {@link #save}
+	 */
+	public T get() {
+		T copy = defaults.get();
+		codec.copy(current(), copy);
+		return copy;
+	}
+
+	private T current() {
+		if(stale || !watched) {
+			synchronized(this) {
+				if(stale || !watched) {
+					refresh();
+				}
+			}
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Writes {@code settings} to the file, and hands out a copy of them from now on.
+	 */
+	public synchronized void save(T settings) {
+		file.save(settings);
+		T copy = defaults.get();
+		codec.copy(settings, copy);
+		snapshot = copy;
+		attributes = attributes();
+		written = true;
+	}
+
+	/**
+	 * @return what was wrong with the file when it was last read
+	 */
+	public List<String> getProblems() {
+		return file.getProblems();
+	}
+
+	/**
+	 * @see SettingsFile#showProblems(Console)
+	 */
+	public void showProblems(Console console) {
+		current();
+		file.showProblems(console);
+	}
+
+	/**
+	 * Reads the file again, unless the change is this service's own save, or, without a watcher to say it changed,
+	 * it looks the same as last time. Any other change the watcher saw is read, since an edit in place can keep the
+	 * size, and the modification time too where the file system keeps it coarsely.
+	 */
+	private void refresh() {
+		// cleared first, so a change while reading is picked up next time
+		stale = false;
+		BasicFileAttributes now = attributes();
+		if(snapshot != null && (written || !watched) && same(attributes, now)) {
+			// only the save's own notice is skipped; anything after it is someone else's
+			written = false;
+			return;
+		}
+
+		snapshot = file.load(defaults.get());
+		attributes = now;
+		written = false;
+	}
+
+	private BasicFileAttributes attributes() {
+		try {
+			return Files.readAttributes(file.getPath(), BasicFileAttributes.class);
+		} catch (NoSuchFileException e) {
+			return null;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static boolean same(BasicFileAttributes a, BasicFileAttributes b) {
+		if(a == null || b == null) return a == b;
+		return a.lastModifiedTime().equals(b.lastModifiedTime()) && a.size() == b.size()
+				&& Objects.equals(a.fileKey(), b.fileKey());
+	}
+
+	/**
+	 * Starts watching {@code directory} for changes, starting the thread that does so the first time.
+	 *
+	 * @return whether it's being watched
+	 */
+	private static synchronized boolean watch(Path directory) {
+		try {
+			if(watcher == null) {
+				watcher = FileSystems.getDefault().newWatchService();
+				Threads.start("settings-watcher", ConfigService::watchLoop);
+			}
+			Files.createDirectories(directory);
+			directory.register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+					StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+			return true;
+		} catch (IOException | UnsupportedOperationException e) {
+			return false;
+		}
+	}
+
+	private static void watchLoop() {
+		try {
+			while(true) {
+				WatchKey key = watcher.take();
+				Path directory = ((Path) key.watchable()).toAbsolutePath();
+				for(WatchEvent<?> event : key.pollEvents()) {
+					if(event.kind() == StandardWatchEventKinds.OVERFLOW) {
+						// events were lost, so any file could have changed
+						for(ConfigService<?> service : SERVICES.values()) {
+							service.stale = true;
+						}
+						continue;
+					}
+					ConfigService<?> service = SERVICES.get(directory.resolve((Path) event.context()));
+					if(service != null) {
+						service.stale = true;
+					}
+				}
+				key.reset();
+			}
+		} catch (InterruptedException ignored) {
+		}
+	}
+}
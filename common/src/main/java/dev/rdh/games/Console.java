@@ -3,100 +3,264 @@ package dev.rdh.games;
 import lombok.Getter;
 
 import java.awt.*;
-import java.io.ByteArrayOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.io.PrintStream;
 import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
 
 public class Console implements AutoCloseable {
 	public static final int DEFAULT_TERMINAL_WIDTH = 80;
 	public static final int DEFAULT_TERMINAL_HEIGHT = 25;
 
-	private final String originalStty;
+	private static final byte[][] DECIMAL = new byte[256][];
+	static {
+		for(int i = 0; i < DECIMAL.length; i++) {
+			DECIMAL[i] = Integer.toString(i).getBytes(StandardCharsets.US_ASCII);
+		}
+	}
 
-	@Getter
-	private boolean echo = false;
+	private static final byte[] FOREGROUND_RGB = "\033[38;2".getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] BACKGROUND_RGB = "\033[48;2".getBytes(StandardCharsets.US_ASCII);
+
+	/**
+	 * asks the terminal to wrap pastes in {@code ESC [ 200 ~} and {@code ESC [ 201 ~}, so they arrive as one {@link Key#PASTE}
+	 */
+	private static final byte[] BRACKETED_PASTE_ON = "\033[?2004h".getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] BRACKETED_PASTE_OFF = "\033[?2004l".getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] SHOW_CURSOR = "\033[?25h".getBytes(StandardCharsets.US_ASCII);
+
+	private final Terminal terminal;
 
 	@Getter
 	private boolean cursorShown = true;
 
-	private final Thread shutdownHook = new Thread(this::actuallyClose);
+	private final Thread shutdownHook = new Thread(this::restore);
+
+	private final Input input;
+
+	private final OutputStream out;
+
+	/**
+	 * everything printed since the last flush, written out in one go by {@link #endFrame()}
+	 */
+	private byte[] buffer = new byte[DEFAULT_TERMINAL_WIDTH * DEFAULT_TERMINAL_HEIGHT * 4];
+	private int buffered = 0;
+
+	@Getter
+	private int frameBytes, frameWrites;
 
 	@Getter
-	private final InputStream in;
+	private long totalBytes, totalWrites;
+
+	private Screen screen;
 
+	/**
+	 * whether output is thrown away instead of rendered, for replaying games as fast as possible
+	 */
 	@Getter
-	private final PrintStream out;
+	private boolean headless = false;
+
+	private ReplayWriter recorder;
+
+	/**
+	 * {@code null} unless {@link Metrics#ENABLED}
+	 */
+	final Metrics metrics = Metrics.ENABLED ? new Metrics() : null;
+
+	/**
+	 * digits of a number being printed, least significant last
+	 */
+	private final byte[] digits = new byte[20];
 
-	public Console(InputStream in, OutputStream out) {
-		this.originalStty = stty("-g");
+	public Console(Input input, OutputStream out, Terminal terminal) {
+		this.terminal = terminal;
+		this.input = input;
+		this.out = out;
 
-		stty("-icanon min 1 -echo");
+		// nested consoles share the terminal, so only the first turns bracketed paste on
+		if(terminal.acquire()) {
+			writeNow(BRACKETED_PASTE_ON);
+		}
 
-		Runtime.getRuntime().addShutdownHook(shutdownHook);
+		if(terminal.isProcessWide()) {
+			Runtime.getRuntime().addShutdownHook(shutdownHook);
+		}
+	}
 
-		this.in = in;
-		this.out = out instanceof PrintStream p ? p : new PrintStream(out);
+	public Console(InputStream in, OutputStream out, Terminal terminal) {
+		this(new Input(in), out, terminal);
 	}
 
 	public Console() {
-		this(System.in, System.out);
+		this(Input.system(), new FileOutputStream(FileDescriptor.out), Terminal.system());
+	}
+
+	/**
+	 * @return a console that reads from {@code input} and never draws anything
+	 */
+	public static Console headless(Input input) {
+		Console console = new Console(input, OutputStream.nullOutputStream(), Terminal.NONE);
+		console.headless = true;
+		return console;
+	}
+
+	/**
+	 * Starts adding every key read to {@code recorder}, or stops if it is {@code null}.
+	 */
+	public void setRecorder(ReplayWriter recorder) {
+		this.recorder = recorder;
+	}
+
+	/**
+	 * Adds a key to the recording as if it had been read, for input the game makes up itself.
+	 */
+	public void record(KeyEvent key) {
+		if(recorder != null && key != null && key.getKey() != Key.EOF) {
+			recorder.key(key);
+		}
 	}
 
 	@Override
 	public void close() {
-		Runtime.getRuntime().removeShutdownHook(shutdownHook);
+		if(terminal.isProcessWide()) {
+			Runtime.getRuntime().removeShutdownHook(shutdownHook);
+		}
 		actuallyClose();
 	}
 
 	private void actuallyClose() {
-		stty(originalStty.trim());
 		showCursor();
+		endFrame();
+		if(terminal.release()) {
+			writeNow(BRACKETED_PASTE_OFF);
+		}
+		if(Metrics.ENABLED) {
+			metrics.closed();
+		}
+	}
+
+	/**
+	 * Puts the terminal back when the JVM exits with the console still open. The game's thread may be printing into the
+	 * buffer at the same time, so this writes straight to the output and leaves the buffer, and the metrics, alone.
+	 */
+	private void restore() {
+		try {
+			out.write(SHOW_CURSOR);
+			if(terminal.release()) {
+				out.write(BRACKETED_PASTE_OFF);
+			}
+			out.flush();
+		} catch (IOException ignored) {
+			// exiting anyway
+		}
+	}
+
+	/**
+	 * @return whether games on this console may save to be resumed, which only the process's own terminal does,
+	 * since every client of a server would otherwise share, and overwrite, the same saves
+	 */
+	public boolean canSave() {
+		return terminal.isProcessWide();
+	}
+
+	public boolean isEcho() {
+		return terminal.isEcho();
 	}
 
 	public void echo(boolean echo) {
-		if(this.echo != echo) {
-			stty(echo ? "echo" : "-echo");
-			this.echo = echo;
+		terminal.echo(echo);
+	}
+
+	/**
+	 * Blocks until a key is pressed.
+	 */
+	public KeyEvent readKey() {
+		while(true) {
+			endFrame();
+			KeyEvent key = input.take();
+			if(Metrics.ENABLED && metrics.keyRead(key)) continue;
+			record(key);
+			return key;
 		}
 	}
 
+	/**
+	 * @return the next key, or {@code null} if none was pressed in time
+	 */
+	public KeyEvent pollKey(long timeout, TimeUnit unit) {
+		endFrame();
+		KeyEvent key = input.poll(timeout, unit);
+		if(Metrics.ENABLED && metrics.keyRead(key)) return null;
+		record(key);
+		return key;
+	}
+
+	/**
+	 * @return the next key, or {@code null} if none is waiting
+	 */
+	public KeyEvent pollKey() {
+		KeyEvent key = input.poll();
+		if(Metrics.ENABLED && metrics.keyRead(key)) return null;
+		record(key);
+		return key;
+	}
+
+	/**
+	 * @return whether the input has ended, after which every read returns {@link Key#EOF}
+	 */
+	public boolean isInputEnded() {
+		return input.isEnded();
+	}
+
 	public char readChar() {
-		try {
-			return (char) in.read();
-		} catch (IOException e) {
-			throw new UncheckedIOException(e);
-		}
+		return readKey().toChar();
 	}
 
 	public String readLine() {
 		boolean cursorShown = this.cursorShown;
-		boolean echo = this.echo;
+		boolean echo = isEcho();
 		showCursor();
 		echo(false);
 		StringBuilder line = new StringBuilder(DEFAULT_TERMINAL_WIDTH);
 
 		int cursorPos = 0;
-		while(true) {
-			char c = readChar();
-			if(c == '\n' || c == '\r') {
-				break;
-			} else if(c == '\b' || c == 127) {
-				if (cursorPos <= 0) continue;
-				cursorPos--;
-				line.deleteCharAt(cursorPos);
-				moveCursorLeft();
-				print(line.substring(cursorPos) + " ");
-				moveCursorLeft(line.length() - cursorPos + 1);
-			} else if(c == '\033') {
-				cursorPos += handleArrowKeys(cursorPos, line.length());
-			} else {
-				line.insert(cursorPos, c);
-				print(line.substring(cursorPos));
-				cursorPos++;
-				moveCursorLeft(line.length() - cursorPos - 1);
+		loop: while(true) {
+			KeyEvent key = readKey();
+			switch(key.getKey()) {
+				case ENTER, EOF -> {
+					break loop;
+				}
+				case BACKSPACE -> {
+					if(cursorPos <= 0) continue;
+					cursorPos--;
+					line.deleteCharAt(cursorPos);
+					moveCursorLeft();
+					print(line.substring(cursorPos) + " ");
+					moveCursorLeft(line.length() - cursorPos + 1);
+				}
+				case LEFT -> {
+					if(cursorPos <= 0) continue;
+					cursorPos--;
+					moveCursorLeft();
+				}
+				case RIGHT -> {
+					if(cursorPos >= line.length()) continue;
+					cursorPos++;
+					moveCursorRight();
+				}
+				case CHARACTER, PASTE -> {
+					if(key.isCtrl()) continue;
+					String text = key.getKey() == Key.PASTE ? key.getText() : String.valueOf(key.getCharacter());
+					line.insert(cursorPos, text);
+					print(line.substring(cursorPos));
+					cursorPos += text.length();
+					moveCursorLeft(line.length() - cursorPos);
+				}
 			}
 		}
 
@@ -108,33 +272,12 @@ public class Console implements AutoCloseable {
 		return line.toString();
 	}
 
-	private int handleArrowKeys(int cursorPos, int lineLength) {
-		if(readChar() != '[') {
-			return 0;
-		}
-
-		char direction = readChar();
-		return switch(direction) {
-			case 'C' -> {
-				if(cursorPos >= lineLength) yield 0;
-				moveCursorRight();
-				yield 1;
-			}
-			case 'D' -> {
-				if(cursorPos <= 0) yield 0;
-				moveCursorLeft();
-				yield -1;
-			}
-			default -> 0;
-		};
-	}
-
 	public void waitForEnter() {
-		boolean echo = this.echo;
+		boolean echo = isEcho();
 		echo(false);
 		while(true) {
-			char c = readChar();
-			if(c == '\n' || c == '\r') {
+			Key key = readKey().getKey();
+			if(key == Key.ENTER || key == Key.EOF) {
 				break;
 			}
 		}
@@ -146,11 +289,17 @@ public class Console implements AutoCloseable {
 	}
 
 	public void moveCursorLeft(int n) {
-		print("\033[" + n + "D");
+		if(n <= 0) return;
+		print("\033[");
+		print(n);
+		print('D');
 	}
 
 	public void moveCursorRight(int n) {
-		print("\033[" + n + "C");
+		if(n <= 0) return;
+		print("\033[");
+		print(n);
+		print('C');
 	}
 
 	public void moveCursorRight() {
@@ -159,6 +308,20 @@ public class Console implements AutoCloseable {
 
 	public void clearScreen() {
 		print("\033[H\033[2J");
+		if(screen != null) {
+			screen.cleared();
+		}
+	}
+
+	/**
+	 * @return a frame buffer of the given size drawing at the top left of the terminal,
+	 * reused across calls as long as the size stays the same
+	 */
+	public Screen screen(int width, int height) {
+		if(screen == null || screen.getWidth() != width || screen.getHeight() != height) {
+			screen = new Screen(this, width, height);
+		}
+		return screen;
 	}
 
 	public void hideCursor() {
@@ -176,48 +339,184 @@ public class Console implements AutoCloseable {
 	}
 
 	public void moveCursor(int row, int col) {
-		print("\033[" + (row + 1) + ";" + (col + 1) + "H");
+		print("\033[");
+		print(row + 1);
+		print(';');
+		print(col + 1);
+		print('H');
 	}
 
 	public void print(Object s) {
-		out.print(s);
+		print(String.valueOf(s));
+	}
+
+	public void print(CharSequence s) {
+		for(int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			if(Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+				writeCodePoint(Character.toCodePoint(c, s.charAt(++i)));
+			} else {
+				writeCodePoint(c);
+			}
+		}
+	}
+
+	public void print(char[] chars, int offset, int length) {
+		for(int i = offset; i < offset + length; i++) {
+			writeCodePoint(chars[i]);
+		}
+	}
+
+	public void print(char c) {
+		writeCodePoint(c);
+	}
+
+	public void print(int i) {
+		if(i >= 0 && i < DECIMAL.length) {
+			write(DECIMAL[i]);
+		} else {
+			print((long) i);
+		}
+	}
+
+	public void print(long l) {
+		if(l == Long.MIN_VALUE) {
+			print(Long.toString(l));
+			return;
+		}
+		if(l < 0) {
+			write('-');
+			l = -l;
+		}
+		int start = digits.length;
+		do {
+			digits[--start] = (byte) ('0' + l % 10);
+			l /= 10;
+		} while(l != 0);
+		ensureCapacity(digits.length - start);
+		System.arraycopy(digits, start, buffer, buffered, digits.length - start);
+		buffered += digits.length - start;
 	}
 
 	public void println(Object s) {
-		out.println(s);
+		print(s);
+		println();
 	}
 
 	public void println() {
-		out.println();
+		print('\n');
+	}
+
+	/**
+	 * Moves to a cleared line under the screen, leaving the cursor where it was to be put back by {@link #endStatusLine()},
+	 * and prints {@code text} there. If {@code text} is {@code null}, the line is left empty and the cursor put back straight away.
+	 */
+	void printStatusLine(String text) {
+		write('\033');
+		write('7');
+		moveCursor(screen == null ? DEFAULT_TERMINAL_HEIGHT - 1 : screen.getHeight(), 0);
+		print("\033[0m\033[2K");
+		if(text == null) {
+			endStatusLine();
+		} else {
+			print(text);
+		}
+	}
+
+	void endStatusLine() {
+		write('\033');
+		write('8');
 	}
 
-	private static String stty(final String args) {
+	/**
+	 * Writes everything printed since the last flush to the output in a single write.
+	 */
+	public void endFrame() {
+		if(Metrics.ENABLED) {
+			metrics.endingFrame(this, buffered);
+		}
+		frameBytes = buffered;
+		frameWrites = 0;
+		if(buffered == 0) return;
+		if(headless) {
+			buffered = 0;
+			return;
+		}
+
 		try {
-			ProcessBuilder pb = new ProcessBuilder("sh", "-c", "stty " + args + " < /dev/tty");
-			Process process = pb.start();
-			InputStream in = process.getInputStream();
-			ByteArrayOutputStream out = new ByteArrayOutputStream();
-
-			int c;
-			while ((c = in.read()) != -1) {
-				out.write(c);
-			}
+			out.write(buffer, 0, buffered);
+			out.flush();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} finally {
+			frameWrites = 1;
+			totalBytes += buffered;
+			totalWrites++;
+			buffered = 0;
+		}
+		if(Metrics.ENABLED) {
+			metrics.frameWritten();
+		}
+	}
 
-			return out.toString();
+	/**
+	 * Writes {@code bytes} straight to the output, ahead of anything still buffered.
+	 */
+	private void writeNow(byte[] bytes) {
+		if(headless) return;
+		try {
+			out.write(bytes);
+			out.flush();
 		} catch (IOException e) {
 			throw new UncheckedIOException(e);
 		}
 	}
 
+	private void write(byte[] bytes) {
+		ensureCapacity(bytes.length);
+		System.arraycopy(bytes, 0, buffer, buffered, bytes.length);
+		buffered += bytes.length;
+	}
+
+	private void write(int b) {
+		ensureCapacity(1);
+		buffer[buffered++] = (byte) b;
+	}
+
+	private void writeCodePoint(int c) {
+		if(c < 0x80) {
+			write(c);
+		} else if(c < 0x800) {
+			write(0xC0 | (c >> 6));
+			write(0x80 | (c & 0x3F));
+		} else if(c < 0x10000) {
+			if(Character.isSurrogate((char) c)) {
+				write('?');
+				return;
+			}
+			write(0xE0 | (c >> 12));
+			write(0x80 | ((c >> 6) & 0x3F));
+			write(0x80 | (c & 0x3F));
+		} else {
+			write(0xF0 | (c >> 18));
+			write(0x80 | ((c >> 12) & 0x3F));
+			write(0x80 | ((c >> 6) & 0x3F));
+			write(0x80 | (c & 0x3F));
+		}
+	}
+
+	private void ensureCapacity(int extra) {
+		if(buffered + extra > buffer.length) {
+			buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, buffered + extra));
+		}
+	}
+
 	public int readInt(String prompt) {
 		return readInt(prompt, Integer.MIN_VALUE, Integer.MAX_VALUE);
 	}
 
 	public void setBackgroundColor(int color) {
-		int r = (color >> 16) & 0xFF;
-		int g = (color >> 8) & 0xFF;
-		int b = color & 0xFF;
-		print(String.format("\033[48;2;%d;%d;%dm", r, g, b));
+		writeRgb(BACKGROUND_RGB, color);
 	}
 
 	public void setBackgroundColor(Color color) {
@@ -237,10 +536,33 @@ public class Console implements AutoCloseable {
 	}
 
 	public void setForegroundColor(int color) {
-		int r = (color >> 16) & 0xFF;
-		int g = (color >> 8) & 0xFF;
-		int b = color & 0xFF;
-		print(String.format("\033[38;2;%d;%d;%dm", r, g, b));
+		writeRgb(FOREGROUND_RGB, color);
+	}
+
+	/**
+	 * Writes the parameters of a 24-bit SGR colour, without the leading escape or the final {@code m}.
+	 */
+	void printRgb(boolean background, int color) {
+		write(background ? '4' : '3');
+		write('8');
+		write(';');
+		write('2');
+		writeRgbParams(color);
+	}
+
+	private void writeRgb(byte[] prefix, int color) {
+		write(prefix);
+		writeRgbParams(color);
+		write('m');
+	}
+
+	private void writeRgbParams(int color) {
+		write(';');
+		write(DECIMAL[(color >> 16) & 0xFF]);
+		write(';');
+		write(DECIMAL[(color >> 8) & 0xFF]);
+		write(';');
+		write(DECIMAL[color & 0xFF]);
 	}
 
 	public int readInt(String prompt, int min, int max) {
@@ -248,7 +570,10 @@ public class Console implements AutoCloseable {
 			clearScreen();
 			print(prompt);
 			try {
-				int i = Integer.parseInt(readLine());
+				String line = readLine();
+				if(isInputEnded()) return min;
+
+				int i = Integer.parseInt(line);
 				if(i < min || i > max) {
 					hideCursor();
 					print("\nNumber must be between " + min + " and " + max + "!");
@@ -0,0 +1,150 @@
+package dev.rdh.games;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Optional;
+
+/**
+ * Switches the terminal's mode with {@code tcgetattr} and {@code tcsetattr} called in process, through the foreign
+ * function API, instead of starting {@code stty} for every change.
+ * <p>
+ * The code targets a release without that API, so it is looked up reflectively, the way {@link dev.rdh.games.util.Threads}
+ * finds virtual threads, and only used on Linux, whose {@code struct termios} layout it knows.
+ * Without {@code --enable-native-access=ALL-UNNAMED}, or the jar's {@code Enable-Native-Access} manifest entry, the JVM
+ * warns the first time it's used.
+ */
+final class FfmTerminal extends Terminal {
+	private static final int STDIN = 0;
+	private static final int TCSANOW = 0;
+
+	/**
+	 * {@code struct termios} on Linux: four {@code int} flag words, the line discipline, then 32 control characters,
+	 * padded and followed by the two speeds, 60 bytes in all
+	 */
+	private static final int TERMIOS_BYTES = 60;
+	private static final int C_LFLAG = 12;
+	private static final int C_CC = 17;
+	private static final int VTIME = 5, VMIN = 6;
+	private static final int ICANON = 0x2, ECHO = 0x8;
+
+	private final MethodHandle tcgetattr, tcsetattr;
+
+	/**
+	 * native memory the calls read and write, and the same memory seen as a buffer
+	 */
+	private final Object termios;
+	private final ByteBuffer buffer;
+
+	private byte[] original;
+
+	private FfmTerminal(MethodHandle tcgetattr, MethodHandle tcsetattr, Object termios, ByteBuffer buffer) {
+		this.tcgetattr = tcgetattr;
+		this.tcsetattr = tcsetattr;
+		this.termios = termios;
+		this.buffer = buffer.order(ByteOrder.nativeOrder());
+	}
+
+	/**
+	 * @return the terminal, or {@code null} if the runtime has no final foreign function API or this isn't Linux
+	 */
+	static FfmTerminal create() {
+		if(Runtime.version().feature() < 22 || !System.getProperty("os.name").toLowerCase().contains("linux")) {
+			return null;
+		}
+		try {
+			Class<?> linkerClass = Class.forName("java.lang.foreign.Linker");
+			Class<?> optionClass = Class.forName("java.lang.foreign.Linker$Option");
+			Class<?> lookupClass = Class.forName("java.lang.foreign.SymbolLookup");
+			Class<?> segmentClass = Class.forName("java.lang.foreign.MemorySegment");
+			Class<?> layoutClass = Class.forName("java.lang.foreign.MemoryLayout");
+			Class<?> valueLayoutClass = Class.forName("java.lang.foreign.ValueLayout");
+			Class<?> descriptorClass = Class.forName("java.lang.foreign.FunctionDescriptor");
+			Class<?> arenaClass = Class.forName("java.lang.foreign.Arena");
+			Class<?> allocatorClass = Class.forName("java.lang.foreign.SegmentAllocator");
+
+			Object linker = linkerClass.getMethod("nativeLinker").invoke(null);
+			Object lookup = linkerClass.getMethod("defaultLookup").invoke(linker);
+			Method find = lookupClass.getMethod("find", String.class);
+			Method downcall = linkerClass.getMethod("downcallHandle", segmentClass, descriptorClass, optionClass.arrayType());
+			Method describe = descriptorClass.getMethod("of", layoutClass, layoutClass.arrayType());
+
+			Object intLayout = valueLayoutClass.getField("JAVA_INT").get(null);
+			Object address = valueLayoutClass.getField("ADDRESS").get(null);
+			Object noOptions = Array.newInstance(optionClass, 0);
+
+			Object getDescriptor = describe.invoke(null, intLayout, layouts(layoutClass, intLayout, address));
+			Object setDescriptor = describe.invoke(null, intLayout, layouts(layoutClass, intLayout, intLayout, address));
+			Optional<?> get = (Optional<?>) find.invoke(lookup, "tcgetattr");
+			Optional<?> set = (Optional<?>) find.invoke(lookup, "tcsetattr");
+			if(get.isEmpty() || set.isEmpty()) return null;
+
+			MethodHandle tcgetattr = (MethodHandle) downcall.invoke(linker, get.get(), getDescriptor, noOptions);
+			MethodHandle tcsetattr = (MethodHandle) downcall.invoke(linker, set.get(), setDescriptor, noOptions);
+
+			Object arena = arenaClass.getMethod("global").invoke(null);
+			Object termios = allocatorClass.getMethod("allocate", long.class).invoke(arena, (long) TERMIOS_BYTES);
+			ByteBuffer buffer = (ByteBuffer) segmentClass.getMethod("asByteBuffer").invoke(termios);
+			return new FfmTerminal(tcgetattr, tcsetattr, termios, buffer);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			return null;
+		}
+	}
+
+	private static Object layouts(Class<?> layoutClass, Object... layouts) {
+		Object array = Array.newInstance(layoutClass, layouts.length);
+		for(int i = 0; i < layouts.length; i++) {
+			Array.set(array, i, layouts[i]);
+		}
+		return array;
+	}
+
+	@Override
+	protected void enter() {
+		if(!get()) {
+			// not a terminal, so there's no mode to change
+			original = null;
+			return;
+		}
+		original = new byte[TERMIOS_BYTES];
+		buffer.get(0, original);
+
+		buffer.putInt(C_LFLAG, buffer.getInt(C_LFLAG) & ~(ICANON | ECHO));
+		buffer.put(C_CC + VMIN, (byte) 1);
+		buffer.put(C_CC + VTIME, (byte) 0);
+		set();
+	}
+
+	@Override
+	protected void setEcho(boolean echo) {
+		if(original == null || !get()) return;
+		int flags = buffer.getInt(C_LFLAG);
+		buffer.putInt(C_LFLAG, echo ? flags | ECHO : flags & ~ECHO);
+		set();
+	}
+
+	@Override
+	protected void exit() {
+		if(original == null) return;
+		buffer.put(0, original);
+		set();
+	}
+
+	private boolean get() {
+		try {
+			return (int) tcgetattr.invokeWithArguments(STDIN, termios) == 0;
+		} catch (Throwable e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private void set() {
+		try {
+			tcsetattr.invokeWithArguments(STDIN, TCSANOW, termios);
+		} catch (Throwable e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
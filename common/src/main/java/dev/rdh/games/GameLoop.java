@@ -0,0 +1,104 @@
+package dev.rdh.games;
+
+import lombok.Getter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A real-time loop that calls {@link #update()} at a fixed rate and {@link #render(double)} at its own, usually lower, rate.
+ * <p>
+ * When updates fall behind, up to {@link #MAX_UPDATES_PER_FRAME} of them run back to back and the frames in between are skipped;
+ * if that still isn't enough the missed time is dropped rather than made up later.
+ */
+public abstract class GameLoop {
+	private static final int MAX_UPDATES_PER_FRAME = 5;
+
+	/**
+	 * parking is only accurate to tens of microseconds, so the last stretch before a deadline is spun instead
+	 */
+	private static final long SPIN_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+	private final long tickNanos;
+	private final long frameNanos;
+
+	@Getter
+	private volatile boolean running;
+
+	@Getter
+	private long ticks, frames, skippedFrames;
+
+	protected GameLoop(int ticksPerSecond, int framesPerSecond) {
+		if(ticksPerSecond <= 0 || framesPerSecond <= 0) {
+			throw new IllegalArgumentException("Rates must be positive");
+		}
+		this.tickNanos = TimeUnit.SECONDS.toNanos(1) / ticksPerSecond;
+		this.frameNanos = TimeUnit.SECONDS.toNanos(1) / framesPerSecond;
+	}
+
+	/**
+	 * Advances the game by one fixed step.
+	 */
+	protected abstract void update();
+
+	/**
+	 * @param alpha how far between the last update and the next one this frame is, from 0 to 1
+	 */
+	protected abstract void render(double alpha);
+
+	/**
+	 * @return the length of a single update in seconds
+	 */
+	protected double tickSeconds() {
+		return tickNanos / 1e9;
+	}
+
+	public void stop() {
+		running = false;
+	}
+
+	public void run() {
+		running = true;
+		long nextTick = System.nanoTime();
+		long nextFrame = nextTick;
+
+		while(running) {
+			long now = System.nanoTime();
+
+			int updates = 0;
+			while(now - nextTick >= 0 && updates < MAX_UPDATES_PER_FRAME) {
+				update();
+				ticks++;
+				nextTick += tickNanos;
+				updates++;
+				if(!running) return;
+			}
+			if(now - nextTick >= 0) {
+				// too far behind to catch up
+				nextTick = now + tickNanos;
+			}
+
+			if(now - nextFrame >= 0) {
+				render(1 - (double) (nextTick - now) / tickNanos);
+				frames++;
+				nextFrame += frameNanos;
+				if(now - nextFrame >= 0) {
+					skippedFrames += (now - nextFrame) / frameNanos + 1;
+					nextFrame = now + frameNanos;
+				}
+			}
+
+			sleepUntil(nextTick - nextFrame < 0 ? nextTick : nextFrame);
+		}
+	}
+
+	private static void sleepUntil(long deadline) {
+		long remaining;
+		while((remaining = deadline - System.nanoTime()) > SPIN_NANOS) {
+			LockSupport.parkNanos(remaining - SPIN_NANOS);
+		}
+		while(deadline - System.nanoTime() > 0) {
+			Thread.onSpinWait();
+		}
+	}
+}
@@ -0,0 +1,320 @@
+package dev.rdh.games;
+
+import dev.rdh.games.util.Threads;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads raw bytes from an input stream on a background thread, decodes them into {@link KeyEvent}s
+ * and queues them up to be taken or polled.
+ */
+public class Input {
+	/**
+	 * how long to wait after an ESC for the rest of an escape sequence before treating it as a lone ESC
+	 */
+	private static final long ESCAPE_TIMEOUT_MS = 25;
+
+	private static Input system;
+
+	private final InputStream in;
+	private final LinkedTransferQueue<KeyEvent> queue = new LinkedTransferQueue<>();
+	private Thread reader;
+	private volatile boolean ended = false;
+
+	public Input(InputStream in) {
+		this.in = in;
+	}
+
+	/**
+	 * An input with no stream behind it, whose keys all come from {@link #push(KeyEvent)}.
+	 */
+	public Input() {
+		this(null);
+	}
+
+	public static synchronized Input system() {
+		if(system == null) {
+			system = new Input(System.in);
+		}
+		return system;
+	}
+
+	public KeyEvent take() {
+		start();
+		try {
+			return keepEof(queue.take());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return KeyEvent.EOF;
+		}
+	}
+
+	/**
+	 * @return the next key, or {@code null} if none arrived in time
+	 */
+	public KeyEvent poll(long timeout, TimeUnit unit) {
+		start();
+		try {
+			return keepEof(queue.poll(timeout, unit));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		}
+	}
+
+	/**
+	 * @return the next key, or {@code null} if there is none waiting
+	 */
+	public KeyEvent poll() {
+		start();
+		return keepEof(queue.poll());
+	}
+
+	/**
+	 * Queues a key as if it had been typed.
+	 */
+	public void push(KeyEvent event) {
+		queue.put(event);
+	}
+
+	/**
+	 * Ends the input once the keys already queued have been read.
+	 */
+	public void end() {
+		queue.put(KeyEvent.EOF);
+	}
+
+	/**
+	 * @return whether a read has reached the end of the input
+	 */
+	public boolean isEnded() {
+		return ended;
+	}
+
+	/**
+	 * puts an end of input back, so every read after it sees it too
+	 */
+	private KeyEvent keepEof(KeyEvent event) {
+		if(event == KeyEvent.EOF) {
+			ended = true;
+			queue.put(event);
+		}
+		return event;
+	}
+
+	private synchronized void start() {
+		if(reader != null || in == null) return;
+		reader = Threads.start("Console Input", this::readLoop);
+	}
+
+	private void readLoop() {
+		try {
+			while(true) {
+				int b = in.read();
+				if(b == -1) break;
+
+				KeyEvent event = decode(b);
+				if(event != null) {
+					queue.put(event);
+				}
+			}
+		} catch (IOException ignored) {
+		}
+		end();
+	}
+
+	private KeyEvent decode(int b) throws IOException {
+		return switch(b) {
+			case '\033' -> decodeEscape();
+			case '\r', '\n' -> KeyEvent.of(Key.ENTER);
+			case '\t' -> KeyEvent.of(Key.TAB);
+			case '\b', 127 -> KeyEvent.of(Key.BACKSPACE);
+			default -> {
+				if(b < 32) {
+					yield KeyEvent.of(control(b), true, false);
+				} else if(b < 0x80) {
+					yield KeyEvent.of((char) b);
+				} else {
+					yield decodeUtf8(b);
+				}
+			}
+		};
+	}
+
+	/**
+	 * @return the key that, held with ctrl, types control character {@code b}: a letter for 1 to 26, space for NUL,
+	 * and backslash, {@code ]}, {@code ^} and {@code _} for 28 to 31
+	 */
+	private static char control(int b) {
+		if(b == 0) return ' ';
+		if(b <= 26) return (char) (b + 'a' - 1);
+		return (char) (b + '@');
+	}
+
+	private KeyEvent decodeEscape() throws IOException {
+		if(!moreAvailable()) {
+			return KeyEvent.of(Key.ESCAPE);
+		}
+
+		int b = in.read();
+		return switch(b) {
+			case -1 -> KeyEvent.EOF;
+			case '[' -> decodeCsi();
+			case 'O' -> decodeSs3();
+			case '\033' -> KeyEvent.of(Key.ESCAPE, false, true);
+			default -> {
+				KeyEvent event = decode(b);
+				yield event == null ? null : withAlt(event);
+			}
+		};
+	}
+
+	/**
+	 * {@code ESC [ params final}, e.g. {@code ESC [ A} or {@code ESC [ 1 ; 5 C}
+	 */
+	private KeyEvent decodeCsi() throws IOException {
+		int first = 0, modifier = 1;
+		int param = 0, index = 0;
+		int b;
+		while((b = in.read()) != -1) {
+			if(b >= '0' && b <= '9') {
+				param = param * 10 + (b - '0');
+			} else if(b == ';') {
+				if(index++ == 0) first = param;
+				param = 0;
+			} else if(b >= 0x40 && b <= 0x7E) {
+				break;
+			}
+		}
+		if(b == -1) return KeyEvent.EOF;
+
+		if(index == 0) {
+			first = param;
+		} else {
+			modifier = Math.max(param, 1);
+		}
+
+		boolean alt = ((modifier - 1) & 2) != 0;
+		boolean ctrl = ((modifier - 1) & 4) != 0;
+
+		Key key = switch(b) {
+			case 'A' -> Key.UP;
+			case 'B' -> Key.DOWN;
+			case 'C' -> Key.RIGHT;
+			case 'D' -> Key.LEFT;
+			case 'H' -> Key.HOME;
+			case 'F' -> Key.END;
+			case 'P' -> Key.F1;
+			case 'Q' -> Key.F2;
+			case 'R' -> Key.F3;
+			case 'S' -> Key.F4;
+			case '~' -> switch(first) {
+				case 1, 7 -> Key.HOME;
+				case 2 -> Key.INSERT;
+				case 3 -> Key.DELETE;
+				case 4, 8 -> Key.END;
+				case 5 -> Key.PAGE_UP;
+				case 6 -> Key.PAGE_DOWN;
+				case 11 -> Key.F1;
+				case 12 -> Key.F2;
+				case 13 -> Key.F3;
+				case 14 -> Key.F4;
+				case 15 -> Key.F5;
+				case 17 -> Key.F6;
+				case 18 -> Key.F7;
+				case 19 -> Key.F8;
+				case 20 -> Key.F9;
+				case 21 -> Key.F10;
+				case 23 -> Key.F11;
+				case 24 -> Key.F12;
+				case 200 -> Key.PASTE;
+				default -> null;
+			};
+			default -> null;
+		};
+
+		if(key == Key.PASTE) {
+			return readPaste();
+		}
+		return key == null ? null : KeyEvent.of(key, ctrl, alt);
+	}
+
+	/**
+	 * {@code ESC O final}, sent for F1-F4 and by some terminals for arrows in application mode
+	 */
+	private KeyEvent decodeSs3() throws IOException {
+		Key key = switch(in.read()) {
+			case -1 -> Key.EOF;
+			case 'A' -> Key.UP;
+			case 'B' -> Key.DOWN;
+			case 'C' -> Key.RIGHT;
+			case 'D' -> Key.LEFT;
+			case 'H' -> Key.HOME;
+			case 'F' -> Key.END;
+			case 'P' -> Key.F1;
+			case 'Q' -> Key.F2;
+			case 'R' -> Key.F3;
+			case 'S' -> Key.F4;
+			default -> null;
+		};
+		return key == null ? null : KeyEvent.of(key);
+	}
+
+	/**
+	 * reads everything up to the closing {@code ESC [ 2 0 1 ~} of a bracketed paste
+	 */
+	private KeyEvent readPaste() throws IOException {
+		byte[] end = "\033[201~".getBytes(StandardCharsets.US_ASCII);
+		ByteArrayOutputStream text = new ByteArrayOutputStream();
+		int matched = 0;
+		int b;
+		while(matched < end.length && (b = in.read()) != -1) {
+			if(b == end[matched]) {
+				matched++;
+				continue;
+			}
+			text.write(end, 0, matched);
+			matched = b == end[0] ? 1 : 0;
+			if(matched == 0) {
+				text.write(b);
+			}
+		}
+		return KeyEvent.paste(text.toString(StandardCharsets.UTF_8));
+	}
+
+	private KeyEvent decodeUtf8(int lead) throws IOException {
+		int extra = lead >= 0xF0 ? 3 : lead >= 0xE0 ? 2 : 1;
+		byte[] bytes = new byte[extra + 1];
+		bytes[0] = (byte) lead;
+		for(int i = 1; i <= extra; i++) {
+			int b = in.read();
+			if(b == -1) return KeyEvent.EOF;
+			bytes[i] = (byte) b;
+		}
+
+		String s = new String(bytes, StandardCharsets.UTF_8);
+		return s.length() == 1 ? KeyEvent.of(s.charAt(0)) : KeyEvent.paste(s);
+	}
+
+	private static KeyEvent withAlt(KeyEvent event) {
+		if(event.getKey() == Key.CHARACTER) {
+			return KeyEvent.of(event.getCharacter(), event.isCtrl(), true);
+		}
+		return KeyEvent.of(event.getKey(), event.isCtrl(), true);
+	}
+
+	private boolean moreAvailable() throws IOException {
+		if(in.available() > 0) return true;
+		try {
+			Thread.sleep(ESCAPE_TIMEOUT_MS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return in.available() > 0;
+	}
+}
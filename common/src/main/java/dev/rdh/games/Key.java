@@ -0,0 +1,55 @@
+package dev.rdh.games;
+
+import lombok.Getter;
+
+/**
+ * Each key has a fixed code that {@link ReplayWriter} records it by, so constants can be added or moved without changing
+ * what old replays mean. A new key takes the next unused code; codes are never reused or renumbered.
+ */
+public enum Key {
+	CHARACTER(0),
+	ENTER(1), TAB(2), BACKSPACE(3), ESCAPE(4),
+	UP(5), DOWN(6), LEFT(7), RIGHT(8),
+	HOME(9), END(10), INSERT(11), DELETE(12), PAGE_UP(13), PAGE_DOWN(14),
+	F1(15), F2(16), F3(17), F4(18), F5(19), F6(20), F7(21), F8(22), F9(23), F10(24), F11(25), F12(26),
+	/**
+	 * a bracketed paste, with the pasted text in {@link KeyEvent#getText()}
+	 */
+	PASTE(27),
+	/**
+	 * the input stream has ended
+	 */
+	EOF(28);
+
+	private static final Key[] BY_CODE = new Key[256];
+
+	static {
+		for(Key key : values()) {
+			if(BY_CODE[key.code] != null) {
+				throw new ExceptionInInitializerError(key + " has the same code as " + BY_CODE[key.code]);
+			}
+			BY_CODE[key.code] = key;
+		}
+	}
+
+	/**
+	 * a byte, as replays store it
+	 */
+	@Getter
+	private final int code;
+
+	Key(int code) {
+		this.code = code;
+	}
+
+	/**
+	 * @return the key with {@code code}, or {@code null} if there isn't one
+	 */
+	public static Key byCode(int code) {
+		return code >= 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+	}
+
+	public boolean isArrow() {
+		return this == UP || this == DOWN || this == LEFT || this == RIGHT;
+	}
+}
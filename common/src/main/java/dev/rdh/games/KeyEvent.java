@@ -0,0 +1,87 @@
+package dev.rdh.games;
+
+import lombok.Getter;
+
+@Getter
+public final class KeyEvent {
+	private static final KeyEvent[] ASCII = new KeyEvent[128];
+	private static final KeyEvent[] SPECIAL = new KeyEvent[Key.values().length];
+	static {
+		for(char c = 0; c < ASCII.length; c++) {
+			ASCII[c] = new KeyEvent(Key.CHARACTER, c, false, false, null);
+		}
+		for(Key key : Key.values()) {
+			SPECIAL[key.ordinal()] = new KeyEvent(key, '\0', false, false, null);
+		}
+	}
+
+	public static final KeyEvent EOF = of(Key.EOF);
+
+	private final Key key;
+
+	/**
+	 * the typed character for {@link Key#CHARACTER}, lowercase when {@link #ctrl} is held
+	 */
+	private final char character;
+	private final boolean ctrl, alt;
+	private final String text;
+
+	private KeyEvent(Key key, char character, boolean ctrl, boolean alt, String text) {
+		this.key = key;
+		this.character = character;
+		this.ctrl = ctrl;
+		this.alt = alt;
+		this.text = text;
+	}
+
+	public static KeyEvent of(Key key) {
+		return SPECIAL[key.ordinal()];
+	}
+
+	public static KeyEvent of(Key key, boolean ctrl, boolean alt) {
+		return ctrl || alt ? new KeyEvent(key, '\0', ctrl, alt, null) : of(key);
+	}
+
+	public static KeyEvent of(char c) {
+		return c < ASCII.length ? ASCII[c] : new KeyEvent(Key.CHARACTER, c, false, false, null);
+	}
+
+	public static KeyEvent of(char c, boolean ctrl, boolean alt) {
+		return ctrl || alt ? new KeyEvent(Key.CHARACTER, c, ctrl, alt, null) : of(c);
+	}
+
+	public static KeyEvent paste(String text) {
+		return new KeyEvent(Key.PASTE, '\0', false, false, text);
+	}
+
+	/**
+	 * @return whether this is the plain, unmodified character {@code c}
+	 */
+	public boolean is(char c) {
+		return key == Key.CHARACTER && character == c && !ctrl && !alt;
+	}
+
+	/**
+	 * @return the character this key would have been read as before key events existed, or {@code '\0'} if none
+	 */
+	public char toChar() {
+		if(ctrl && key == Key.CHARACTER) {
+			return (char) (character & 0x1F);
+		}
+
+		return switch(key) {
+			case CHARACTER -> character;
+			case ENTER -> '\n';
+			case TAB -> '\t';
+			case BACKSPACE -> '\b';
+			case ESCAPE -> '\033';
+			default -> '\0';
+		};
+	}
+
+	@Override
+	public String toString() {
+		String name = key == Key.CHARACTER ? "'" + character + "'" : key.name();
+		return (ctrl ? "Ctrl+" : "") + (alt ? "Alt+" : "") + name;
+	}
+}
@@ -0,0 +1,199 @@
+package dev.rdh.games;
+
+import dev.rdh.games.util.Histogram;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Frame and input timings for one {@link Console}, to tune the games with.
+ * <p>
+ * Off unless the {@code games.metrics} system property is {@code true} or {@code games.metrics.file} names a file.
+ * Every hook is behind {@link #ENABLED}, so when it's off the JIT drops them and nothing is measured or allocated.
+ * When on, {@code Ctrl+T} shows or hides a line of numbers under the game, and with {@code games.metrics.file}
+ * a summary is appended to the file every {@code games.metrics.interval} seconds (10 by default) and when the console closes.
+ * <p>
+ * Everything is recorded on the thread playing the game, so nothing here is synchronized.
+ */
+public final class Metrics {
+	private static final String FILE = System.getProperty("games.metrics.file");
+
+	public static final boolean ENABLED = Boolean.getBoolean("games.metrics") || FILE != null;
+
+	private static final long DUMP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(Long.getLong("games.metrics.interval", 10));
+
+	/**
+	 * measures allocation by the current thread, or {@code null} if the runtime can't
+	 */
+	private static final com.sun.management.ThreadMXBean ALLOCATIONS;
+
+	static {
+		com.sun.management.ThreadMXBean allocations = null;
+		if(ENABLED && ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+				&& threads.isThreadAllocatedMemorySupported()) {
+			threads.setThreadAllocatedMemoryEnabled(true);
+			allocations = threads;
+		}
+		ALLOCATIONS = allocations;
+	}
+
+	private static final AtomicInteger CONSOLES = new AtomicInteger();
+
+	private static final String[] OVERLAY_LABELS = { "key->frame p50 ", "us p99 ", "us | render p50 ", "us | frame p50 ", "B | alloc/turn p50 ", "B" };
+
+	private final int id = CONSOLES.incrementAndGet();
+
+	/**
+	 * from a key being read to the frame drawn in response being written out, in nanoseconds
+	 */
+	private final Histogram inputLatency = new Histogram();
+
+	/**
+	 * time {@link Screen#render()} takes, including writing the frame out, in nanoseconds
+	 */
+	private final Histogram renderTime = new Histogram();
+
+	private final Histogram frameBytes = new Histogram();
+
+	/**
+	 * bytes allocated by the game's thread from one key being read to the next
+	 */
+	private final Histogram turnAllocations = new Histogram();
+
+	private long keys, frames, bytes;
+
+	/**
+	 * when the last key was read, until a frame goes out
+	 */
+	private long keyRead = -1;
+	private long allocatedAtKey = -1;
+
+	private boolean overlay = false;
+
+	/**
+	 * whether the overlay has to be drawn or cleared even if the game drew nothing
+	 */
+	private boolean overlayChanged = false;
+
+	private long nextDump = System.nanoTime() + DUMP_INTERVAL_NANOS;
+
+	/**
+	 * @return whether the key was for the metrics, in which case the game shouldn't see it
+	 */
+	boolean keyRead(KeyEvent key) {
+		if(key == null || key.getKey() == Key.EOF) return false;
+		if(key.getKey() == Key.CHARACTER && key.isCtrl() && key.getCharacter() == 't') {
+			overlay = !overlay;
+			overlayChanged = true;
+			return true;
+		}
+
+		keys++;
+		keyRead = System.nanoTime();
+		if(ALLOCATIONS != null) {
+			long allocated = ALLOCATIONS.getCurrentThreadAllocatedBytes();
+			if(allocatedAtKey >= 0 && allocated >= 0) {
+				turnAllocations.record(allocated - allocatedAtKey);
+			}
+			allocatedAtKey = allocated;
+		}
+		return false;
+	}
+
+	/**
+	 * Records a frame of {@code length} bytes about to be written, and adds the overlay to it if it's showing.
+	 */
+	void endingFrame(Console console, int length) {
+		if(length > 0) {
+			frames++;
+			bytes += length;
+			frameBytes.record(length);
+		}
+
+		if(overlay && (length > 0 || overlayChanged)) {
+			drawOverlay(console);
+		} else if(overlayChanged) {
+			console.printStatusLine(null);
+		}
+		overlayChanged = false;
+	}
+
+	/**
+	 * Called once a frame has been written out.
+	 */
+	void frameWritten() {
+		long now = System.nanoTime();
+		if(keyRead >= 0) {
+			inputLatency.record(now - keyRead);
+			keyRead = -1;
+		}
+		if(FILE != null && now >= nextDump) {
+			nextDump = now + DUMP_INTERVAL_NANOS;
+			dump();
+		}
+	}
+
+	void rendered(long nanos) {
+		renderTime.record(nanos);
+	}
+
+	void closed() {
+		if(FILE != null) {
+			dump();
+		}
+	}
+
+	private void drawOverlay(Console console) {
+		console.printStatusLine(OVERLAY_LABELS[0]);
+		console.print(TimeUnit.NANOSECONDS.toMicros(inputLatency.getPercentile(50)));
+		console.print(OVERLAY_LABELS[1]);
+		console.print(TimeUnit.NANOSECONDS.toMicros(inputLatency.getPercentile(99)));
+		console.print(OVERLAY_LABELS[2]);
+		console.print(TimeUnit.NANOSECONDS.toMicros(renderTime.getPercentile(50)));
+		console.print(OVERLAY_LABELS[3]);
+		console.print(frameBytes.getPercentile(50));
+		if(ALLOCATIONS != null) {
+			console.print(OVERLAY_LABELS[4]);
+			console.print(turnAllocations.getPercentile(50));
+		}
+		console.print(OVERLAY_LABELS[5]);
+		console.endStatusLine();
+	}
+
+	private void dump() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(LocalDateTime.now()).append(" console ").append(id)
+				.append(": keys=").append(keys).append(" frames=").append(frames).append(" bytes=").append(bytes).append('\n');
+		summary(sb, "key->frame us", inputLatency, 1000);
+		summary(sb, "render us", renderTime, 1000);
+		summary(sb, "frame bytes", frameBytes, 1);
+		if(ALLOCATIONS != null) {
+			summary(sb, "alloc/turn bytes", turnAllocations, 1);
+		}
+
+		synchronized(Metrics.class) {
+			try {
+				Files.writeString(Path.of(FILE), sb, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	private static void summary(StringBuilder sb, String name, Histogram histogram, long unit) {
+		sb.append("  ").append(name).append(": n=").append(histogram.getCount())
+				.append(" min=").append(histogram.getMin() / unit)
+				.append(" mean=").append(Math.round(histogram.getMean() / unit))
+				.append(" p50=").append(histogram.getPercentile(50) / unit)
+				.append(" p90=").append(histogram.getPercentile(90) / unit)
+				.append(" p99=").append(histogram.getPercentile(99) / unit)
+				.append(" max=").append(histogram.getMax() / unit).append('\n');
+	}
+}
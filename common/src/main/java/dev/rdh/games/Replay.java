@@ -0,0 +1,151 @@
+package dev.rdh.games;
+
+import dev.rdh.games.util.Threads;
+
+import lombok.Getter;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A game recorded by {@link ReplayWriter}, loaded to play back either in real time or as fast as possible.
+ */
+public class Replay {
+	static final int MAGIC = 0x52444852; // RDHR
+	static final int VERSION = 1;
+	static final int END = 0, KEY = 1, VALUE = 2;
+
+	@Getter
+	private final String game;
+
+	@Getter
+	private final long seed;
+
+	private final byte[] config;
+
+	private final List<KeyEvent> keys = new ArrayList<>();
+	private final List<Integer> delays = new ArrayList<>();
+
+	private final List<Long> values = new ArrayList<>();
+	private int nextValue = 0;
+
+	private Replay(String game, long seed, byte[] config) {
+		this.game = game;
+		this.seed = seed;
+		this.config = config;
+	}
+
+	public static Replay read(Path path) throws IOException {
+		try(DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(path)))) {
+			if(in.readInt() != MAGIC) {
+				throw new InvalidObjectException("Not a replay: " + path);
+			}
+			int version = in.readUnsignedByte();
+			if(version != VERSION) {
+				throw new InvalidObjectException("Unsupported replay version " + version + ": " + path);
+			}
+
+			String game = in.readUTF();
+			long seed = in.readLong();
+			int configLength = readVarint(in);
+			if(configLength < 0 || configLength > in.available()) {
+				throw new InvalidObjectException("Bad configuration length " + configLength + ": " + path);
+			}
+			byte[] config = new byte[configLength];
+			in.readFully(config);
+			Replay replay = new Replay(game, seed, config);
+
+			int delay = 0;
+			int tag;
+			while((tag = in.readUnsignedByte()) != END) {
+				delay += readVarint(in);
+				if(tag == VALUE) {
+					replay.values.add(in.readLong());
+					continue;
+				}
+				if(tag != KEY) {
+					throw new InvalidObjectException("Unknown replay event " + tag + ": " + path);
+				}
+
+				int code = in.readUnsignedByte();
+				Key key = Key.byCode(code);
+				if(key == null) {
+					throw new InvalidObjectException("Unknown key " + code + ": " + path);
+				}
+				int modifiers = in.readUnsignedByte();
+				boolean ctrl = (modifiers & 1) != 0, alt = (modifiers & 2) != 0;
+				KeyEvent event = switch(key) {
+					case CHARACTER -> KeyEvent.of((char) readVarint(in), ctrl, alt);
+					case PASTE -> KeyEvent.paste(in.readUTF());
+					default -> KeyEvent.of(key, ctrl, alt);
+				};
+				replay.keys.add(event);
+				replay.delays.add(delay);
+				delay = 0;
+			}
+			return replay;
+		}
+	}
+
+	private static int readVarint(DataInputStream in) throws IOException {
+		int value = 0;
+		for(int shift = 0; ; shift += 7) {
+			int b = in.readUnsignedByte();
+			value |= (b & 0x7F) << shift;
+			if((b & 0x80) == 0) return value;
+		}
+	}
+
+	/**
+	 * @return the configuration the game recorded, to read back the way it was written
+	 */
+	public DataInputStream config() {
+		return new DataInputStream(new ByteArrayInputStream(config));
+	}
+
+	public int getKeyCount() {
+		return keys.size();
+	}
+
+	/**
+	 * @return the next value the game recorded
+	 */
+	public long nextValue() {
+		if(nextValue >= values.size()) {
+			throw new IllegalStateException("Replay of " + game + " has no more recorded values");
+		}
+		return values.get(nextValue++);
+	}
+
+	/**
+	 * @param realTime whether to wait between keys as long as the player did, or queue them all up at once
+	 * @return input that types the recorded keys and then ends
+	 */
+	public Input input(boolean realTime) {
+		Input input = new Input();
+		if(!realTime) {
+			keys.forEach(input::push);
+			input.end();
+			return input;
+		}
+
+		Threads.start("Replay", () -> {
+			try {
+				for(int i = 0; i < keys.size(); i++) {
+					Thread.sleep(delays.get(i));
+					input.push(keys.get(i));
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			input.end();
+		});
+		return input;
+	}
+}
@@ -0,0 +1,124 @@
+package dev.rdh.games;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Records a game as it is played, so that {@link Replay} can play it back exactly.
+ * <p>
+ * The file starts with {@link Replay#MAGIC}, a version byte, the game's name, its seed and its configuration as the game wrote it.
+ * Then come events, each a tag byte, the milliseconds since the previous event as a varint, and:
+ * <ul>
+ *     <li>{@link Replay#KEY}: the key's {@link Key#getCode() code}, a byte of modifiers (1 for ctrl, 2 for alt),
+ *     and the character as a varint for {@link Key#CHARACTER} or the text for {@link Key#PASTE}</li>
+ *     <li>{@link Replay#VALUE}: a {@code long} the game needs to come out the same, like a layout found by a timed search</li>
+ * </ul>
+ * and finally {@link Replay#END}.
+ */
+public class ReplayWriter implements AutoCloseable {
+	private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+	private final DataOutputStream out;
+	private long lastEvent = System.currentTimeMillis();
+
+	/**
+	 * @throws FileAlreadyExistsException if there's already a file at {@code path}, which is never overwritten
+	 */
+	public ReplayWriter(Path path, String game, long seed, byte[] config) throws IOException {
+		this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)));
+		out.writeInt(Replay.MAGIC);
+		out.writeByte(Replay.VERSION);
+		out.writeUTF(game);
+		out.writeLong(seed);
+		writeVarint(config.length);
+		out.write(config);
+	}
+
+	/**
+	 * Starts recording into a new file in the directory named by the {@code games.replays} system property.
+	 * If the file can't be made there, {@code console} says so and the game is played without recording.
+	 *
+	 * @return the recorder, or {@code null} if recording is off because the property isn't set or the file can't be written
+	 */
+	public static ReplayWriter start(Console console, String game, long seed, byte[] config) {
+		String directory = System.getProperty("games.replays");
+		if(directory == null) return null;
+
+		try {
+			Path dir = Files.createDirectories(Path.of(directory));
+			String name = game.toLowerCase() + "-" + LocalDateTime.now().format(FILE_TIME);
+			for(int n = 0; ; n++) {
+				Path file = dir.resolve(n == 0 ? name + ".replay" : name + "-" + n + ".replay");
+				try {
+					return new ReplayWriter(file, game, seed, config);
+				} catch (FileAlreadyExistsException e) {
+					// another session started a game in the same millisecond
+				}
+			}
+		} catch (IOException | InvalidPathException e) {
+			console.clearScreen();
+			console.println("Not recording a replay, " + directory + " can't be written to: " + e);
+			console.println("Press enter to continue");
+			console.waitForEnter();
+			return null;
+		}
+	}
+
+	public synchronized void key(KeyEvent key) {
+		try {
+			event(Replay.KEY);
+			out.writeByte(key.getKey().getCode());
+			out.writeByte((key.isCtrl() ? 1 : 0) | (key.isAlt() ? 2 : 0));
+			if(key.getKey() == Key.CHARACTER) {
+				writeVarint(key.getCharacter());
+			} else if(key.getKey() == Key.PASTE) {
+				out.writeUTF(key.getText());
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	public synchronized void value(long value) {
+		try {
+			event(Replay.VALUE);
+			out.writeLong(value);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void event(int tag) throws IOException {
+		long now = System.currentTimeMillis();
+		out.writeByte(tag);
+		writeVarint((int) Math.min(Math.max(now - lastEvent, 0), Integer.MAX_VALUE));
+		lastEvent = now;
+	}
+
+	private void writeVarint(int value) throws IOException {
+		while((value & ~0x7F) != 0) {
+			out.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+
+	@Override
+	public synchronized void close() {
+		try {
+			out.writeByte(Replay.END);
+			out.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
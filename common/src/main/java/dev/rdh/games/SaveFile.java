@@ -0,0 +1,125 @@
+package dev.rdh.games;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A game saved to resume later: a magic number naming the game, a format version, and then whatever the game wrote.
+ * <p>
+ * Saving writes a temporary file beside the save and moves it over the old one in one step, so a save is either
+ * the old one or the new one, never half written. Loading reads the whole file in one go.
+ * Saves go in {@code ~/.rdh} unless the {@code games.saves} system property names another directory.
+ */
+public final class SaveFile {
+	private static final int HEADER_BYTES = 8;
+
+	private final Path path;
+	private final int magic, version;
+
+	/**
+	 * @param name the file name, without the extension
+	 * @param magic identifies the game, so one game's save is never read as another's
+	 * @param version the format saves are written in, and the only one read back
+	 */
+	public SaveFile(String name, int magic, int version) {
+		this.path = directory().resolve(name + ".sav");
+		this.magic = magic;
+		this.version = version;
+	}
+
+	static Path directory() {
+		String directory = System.getProperty("games.saves");
+		return directory != null ? Path.of(directory) : Path.of(System.getProperty("user.home")).resolve(".rdh");
+	}
+
+	public boolean exists() {
+		return Files.isRegularFile(path);
+	}
+
+	/**
+	 * Replaces the save with everything from {@code body}'s position to its limit.
+	 */
+	public void write(ByteBuffer body) {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(magic).putInt(version).flip();
+		try {
+			replace(path, header, body);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Replaces {@code path} with the contents of {@code buffers}, written to a temporary file beside it and then moved
+	 * over it, so that anything reading it, even after a crash, sees either the old contents or the new ones.
+	 */
+	static void replace(Path path, ByteBuffer... buffers) throws IOException {
+		Files.createDirectories(path.getParent());
+		Path temp = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+		try {
+			try(FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+				while(buffers[buffers.length - 1].hasRemaining()) {
+					channel.write(buffers);
+				}
+				channel.force(false);
+			}
+			try {
+				Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	/**
+	 * @return what the game wrote, or {@code null} if nothing is saved
+	 * @throws InvalidObjectException if the file isn't a save of this game in this version
+	 */
+	public ByteBuffer read() throws IOException {
+		ByteBuffer buffer;
+		try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if(size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+				throw new InvalidObjectException("Not a save file: " + path);
+			}
+			buffer = ByteBuffer.allocate((int) size);
+			// one read, unless the channel hands back less than asked
+			while(buffer.hasRemaining()) {
+				if(channel.read(buffer) < 0) {
+					throw new EOFException("Save file shrank while reading: " + path);
+				}
+			}
+		} catch (NoSuchFileException e) {
+			return null;
+		}
+		buffer.flip();
+
+		if(buffer.getInt() != magic) {
+			throw new InvalidObjectException("Not a save file for this game: " + path);
+		}
+		int saved = buffer.getInt();
+		if(saved != version) {
+			throw new InvalidObjectException("Unsupported save version " + saved + ": " + path);
+		}
+		return buffer;
+	}
+
+	public void delete() {
+		try {
+			Files.deleteIfExists(path);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
@@ -0,0 +1,242 @@
+package dev.rdh.games;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * A cell grid that is drawn into and then diffed against what was last sent to the terminal,
+ * so that only the cells which actually changed produce any output.
+ * <p>
+ * Colours are either {@link #DEFAULT}, a 24-bit {@link #rgb(int) rgb} value,
+ * or one of the 16 {@link #palette(int) palette} colours given by its SGR code.
+ */
+public class Screen {
+	public static final int DEFAULT = -1;
+	private static final int UNKNOWN = -2;
+	private static final int PALETTE = 0x1000000;
+
+	/**
+	 * gaps of up to this many cells on the same row are reprinted rather than skipped with a cursor move
+	 */
+	private static final int MAX_REPRINT_GAP = 3;
+
+	private final Console console;
+
+	@Getter
+	private final int width, height;
+
+	private final char[] glyphs, frontGlyphs;
+	private final int[] fgs, frontFgs;
+	private final int[] bgs, frontBgs;
+
+	Screen(Console console, int width, int height) {
+		this.console = console;
+		this.width = width;
+		this.height = height;
+
+		int size = width * height;
+		this.glyphs = new char[size];
+		this.fgs = new int[size];
+		this.bgs = new int[size];
+		this.frontGlyphs = new char[size];
+		this.frontFgs = new int[size];
+		this.frontBgs = new int[size];
+
+		clear();
+		invalidate();
+	}
+
+	public static int rgb(int color) {
+		return color & 0xFFFFFF;
+	}
+
+	/**
+	 * @param sgr the foreground SGR code of the colour, e.g. {@code 91} for bright red
+	 */
+	public static int palette(int sgr) {
+		return PALETTE | sgr;
+	}
+
+	/**
+	 * Clears the back buffer, leaving the terminal untouched until the next {@link #render()}.
+	 */
+	public void clear() {
+		Arrays.fill(glyphs, ' ');
+		Arrays.fill(fgs, DEFAULT);
+		Arrays.fill(bgs, DEFAULT);
+	}
+
+	/**
+	 * Forgets what is on the terminal, so the next {@link #render()} repaints every cell.
+	 */
+	public void invalidate() {
+		Arrays.fill(frontGlyphs, '\0');
+		Arrays.fill(frontFgs, UNKNOWN);
+		Arrays.fill(frontBgs, UNKNOWN);
+	}
+
+	/**
+	 * Marks the terminal as blank, e.g. after {@link Console#clearScreen()}.
+	 */
+	void cleared() {
+		Arrays.fill(frontGlyphs, ' ');
+		Arrays.fill(frontFgs, DEFAULT);
+		Arrays.fill(frontBgs, DEFAULT);
+	}
+
+	public void set(int row, int col, char glyph, int fg, int bg) {
+		if(row < 0 || row >= height || col < 0 || col >= width) return;
+		int i = row * width + col;
+		glyphs[i] = glyph;
+		fgs[i] = fg;
+		bgs[i] = bg;
+	}
+
+	public void set(int row, int col, char glyph) {
+		set(row, col, glyph, DEFAULT, DEFAULT);
+	}
+
+	/**
+	 * @return the column after the last character printed
+	 */
+	public int print(int row, int col, CharSequence s, int fg, int bg) {
+		for(int i = 0; i < s.length(); i++) {
+			set(row, col++, s.charAt(i), fg, bg);
+		}
+		return col;
+	}
+
+	public int print(int row, int col, CharSequence s) {
+		return print(row, col, s, DEFAULT, DEFAULT);
+	}
+
+	/**
+	 * Copies a prepared row of glyphs in, all in one colour.
+	 *
+	 * @return the column after the last character printed
+	 */
+	public int print(int row, int col, char[] s, int fg, int bg) {
+		int from = Math.max(col, 0), to = Math.min(col + s.length, width);
+		if(row >= 0 && row < height && from < to) {
+			int start = row * width;
+			System.arraycopy(s, from - col, glyphs, start + from, to - from);
+			Arrays.fill(fgs, start + from, start + to, fg);
+			Arrays.fill(bgs, start + from, start + to, bg);
+		}
+		return col + s.length;
+	}
+
+	/**
+	 * Prints a number in decimal without making a string of it.
+	 *
+	 * @return the column after the last digit printed
+	 */
+	public int print(int row, int col, long value, int fg, int bg) {
+		if(value < 0) {
+			set(row, col++, '-', fg, bg);
+		}
+		int digits = 1;
+		for(long rest = value / 10; rest != 0; rest /= 10) {
+			digits++;
+		}
+		for(int i = digits - 1; i >= 0; i--) {
+			set(row, col + i, (char) ('0' + Math.abs(value % 10)), fg, bg);
+			value /= 10;
+		}
+		return col + digits;
+	}
+
+	public void fill(int row, int col, int length, char glyph, int fg, int bg) {
+		for(int i = 0; i < length; i++) {
+			set(row, col + i, glyph, fg, bg);
+		}
+	}
+
+	/**
+	 * Sends the cells that differ from the last rendered frame to the console and ends the console's frame.
+	 */
+	public void render() {
+		if(console.isHeadless()) return;
+		long start = Metrics.ENABLED ? System.nanoTime() : 0;
+
+		int cursorRow = -1, cursorCol = -1;
+		int fg = DEFAULT, bg = DEFAULT;
+
+		for(int row = 0; row < height; row++) {
+			for(int col = 0; col < width; col++) {
+				int i = row * width + col;
+				if(!changed(i)) continue;
+
+				if(cursorRow == row && col > cursorCol && canReprint(i - (col - cursorCol), i, fg, bg)) {
+					console.print(glyphs, i - (col - cursorCol), col - cursorCol);
+				} else if(cursorRow == row && col > cursorCol) {
+					console.print("\033[");
+					console.print(col - cursorCol);
+					console.print('C');
+				} else if(cursorRow != row || cursorCol != col) {
+					console.print("\033[");
+					console.print(row + 1);
+					console.print(';');
+					console.print(col + 1);
+					console.print('H');
+				}
+
+				if(fgs[i] != fg || bgs[i] != bg) {
+					appendSgr(fgs[i], bgs[i]);
+					fg = fgs[i];
+					bg = bgs[i];
+				}
+
+				console.print(glyphs[i]);
+				frontGlyphs[i] = glyphs[i];
+				frontFgs[i] = fgs[i];
+				frontBgs[i] = bgs[i];
+				cursorRow = row;
+				cursorCol = col + 1;
+			}
+		}
+
+		if(fg != DEFAULT || bg != DEFAULT) {
+			console.print("\033[0m");
+		}
+
+		console.endFrame();
+		if(Metrics.ENABLED) {
+			console.metrics.rendered(System.nanoTime() - start);
+		}
+	}
+
+	private boolean changed(int i) {
+		return glyphs[i] != frontGlyphs[i] || fgs[i] != frontFgs[i] || bgs[i] != frontBgs[i];
+	}
+
+	private boolean canReprint(int from, int to, int fg, int bg) {
+		if(to - from > MAX_REPRINT_GAP) return false;
+		for(int i = from; i < to; i++) {
+			if(fgs[i] != fg || bgs[i] != bg) return false;
+		}
+		return true;
+	}
+
+	private void appendSgr(int fg, int bg) {
+		console.print("\033[0");
+		if(fg != DEFAULT) {
+			console.print(';');
+			appendColor(fg, false);
+		}
+		if(bg != DEFAULT) {
+			console.print(';');
+			appendColor(bg, true);
+		}
+		console.print('m');
+	}
+
+	private void appendColor(int color, boolean background) {
+		if((color & PALETTE) != 0) {
+			console.print((color & 0xFF) + (background ? 10 : 0));
+		} else {
+			console.printRgb(background, color);
+		}
+	}
+}
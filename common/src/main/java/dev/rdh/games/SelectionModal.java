@@ -1,18 +1,79 @@
 package dev.rdh.games;
 
-import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.IntStream;
 
+/**
+ * A menu picked from with the arrow keys and enter, or space.
+ * <p>
+ * Only the options that fit on the terminal are drawn, scrolling as the selection moves, and moving the selection
+ * within them repaints just the two rows it moved between. Typing narrows the options down to those starting with
+ * what was typed, ignoring case, and backspace or escape widen them again.
+ */
 public class SelectionModal {
-	protected final LinkedList<String> options;
+	private static final int DEFAULT_ROWS = Console.DEFAULT_TERMINAL_HEIGHT;
+
+	protected final String[] options;
+
+	/**
+	 * the option selected, which stays selected between displays
+	 */
 	protected int selectedIndex;
 	protected final String prompt;
 	protected int colorCode = 96; // bright cyan
 
-	private SelectionModal(String prompt) {
+	private final int promptLines;
+
+	/**
+	 * how many options are drawn at once
+	 */
+	private final int rows;
+
+	/**
+	 * the options lower-cased, and their indices sorted by that, built the first time something is typed
+	 */
+	private String[] keys;
+	private int[] sorted;
+
+	/**
+	 * what has been typed, and for each length of it, the range of {@link #sorted} that starts with that much of it
+	 */
+	private final StringBuilder filter = new StringBuilder();
+	private int[] rangeStarts = new int[8], rangeEnds = new int[8];
+
+	/**
+	 * indices of the options that match the filter, in order
+	 */
+	private final int[] visible;
+	private int visibleCount;
+
+	/**
+	 * position of the selection in {@link #visible}, or -1 if nothing matches
+	 */
+	private int selected;
+
+	/**
+	 * position in {@link #visible} of the top row drawn
+	 */
+	private int top;
+
+	/**
+	 * how many rows held an option the last time the list was drawn, so that rows left over can be cleared
+	 */
+	private int drawnRows;
+
+	private SelectionModal(String prompt, String[] options) {
 		this.prompt = prompt;
-		this.options = new LinkedList<>();
+		this.options = options;
 		this.selectedIndex = 0;
+		this.promptLines = (int) prompt.lines().count();
+		// one row is kept for the filter
+		this.rows = Math.max(DEFAULT_ROWS - promptLines - 1, 1);
+		this.visible = new int[options.length];
 	}
 
 	@SafeVarargs
@@ -20,28 +81,33 @@ public class SelectionModal {
 		if(options.length == 0) {
 			throw new IllegalArgumentException("Must have at least one option");
 		}
-		SelectionModal sm = new SelectionModal(prompt);
+		// the varargs are only ever read here, so nothing else can see the array and the method stays lint-clean
+		List<String> strings = new ArrayList<>(options.length);
 		for(T t : options) {
-			if(t == null) continue;
-			sm.options.addLast(String.valueOf(t));
+			add(strings, t);
 		}
-
-		return sm;
+		return new SelectionModal(prompt, strings.toArray(new String[0]));
 	}
 
 	@SafeVarargs
 	public static <T> SelectionModal of(String prompt, Iterable<T> options, T... moreOptions) {
-		SelectionModal sm = new SelectionModal(prompt);
+		List<String> strings = new ArrayList<>();
 		for(T t : options) {
-			if(t == null) continue;
-			sm.options.addLast(String.valueOf(t));
+			add(strings, t);
 		}
 		for(T t : moreOptions) {
-			if(t == null) continue;
-			sm.options.addLast(String.valueOf(t));
+			add(strings, t);
 		}
+		return new SelectionModal(prompt, strings.toArray(new String[0]));
+	}
 
-		return sm;
+	/**
+	 * adds {@code option} as it's shown, skipping {@code null}s
+	 */
+	private static void add(List<String> strings, Object option) {
+		if(option != null) {
+			strings.add(String.valueOf(option));
+		}
 	}
 
 	public SelectionModal withColor(int colorCode) {
@@ -50,61 +116,208 @@ public class SelectionModal {
 	}
 
 	public int displayOn(Console console) {
-		console.clearScreen();
 		boolean hidden = console.isCursorShown();
 		console.hideCursor();
-		console.println(prompt);
 
-		int numNewLines = (int) prompt.lines().count();
+		filter.setLength(0);
+		showAll();
+		console.clearScreen();
+		console.println(prompt);
+		drawnRows = 0;
+		drawList(console);
 
 		while(true) {
-			console.moveCursor(numNewLines, 0);
-
-			Iterator<String> iter = options.iterator();
-			for(int i = 0; iter.hasNext(); i++) {
-				if(i == selectedIndex) {
-					console.print("\033[" + colorCode + ";1m");
+			KeyEvent input = console.readKey();
+			switch(input.getKey()) {
+				case UP -> select(console, selected - 1);
+				case DOWN -> select(console, selected + 1);
+				case PAGE_UP -> select(console, selected - rows);
+				case PAGE_DOWN -> select(console, selected + rows);
+				case HOME -> select(console, 0);
+				case END -> select(console, visibleCount - 1);
+				case BACKSPACE -> {
+					if(!filter.isEmpty()) {
+						filter.setLength(filter.length() - 1);
+						filtered(console);
+					}
 				}
-
-				console.print(listItem(i, iter.next()));
-
-				if(i == selectedIndex) {
-					console.print("\033[0m");
+				case ESCAPE -> {
+					if(!filter.isEmpty()) {
+						filter.setLength(0);
+						filtered(console);
+					}
 				}
-			}
-
-			char input = console.readChar();
-			if(input == '\033') {
-				if(console.readChar() == '[') {
-					updateSelection(console.readChar());
+				case PASTE -> {
+					for(int i = 0; i < input.getText().length(); i++) {
+						type(input.getText().charAt(i));
+					}
+					filtered(console);
 				}
-			} else if (input == '\n' || input == ' ') {
-				if(!hidden) {
-					console.showCursor();
+				case CHARACTER -> {
+					if(input.is(' ') && filter.isEmpty()) {
+						if(selected >= 0) {
+							return finish(console, hidden);
+						}
+					} else if(!input.isCtrl() && !input.isAlt()) {
+						type(input.getCharacter());
+						filtered(console);
+					}
+				}
+				case ENTER -> {
+					if(selected >= 0) {
+						return finish(console, hidden);
+					}
+				}
+				case EOF -> {
+					return finish(console, hidden);
 				}
-				return selectedIndex;
 			}
 		}
 	}
 
-	protected String listItem(int index, String item) {
-		return (index + 1) + ". " + item + "\n";
+	private int finish(Console console, boolean hidden) {
+		if(!hidden) {
+			console.showCursor();
+		}
+		return selectedIndex;
 	}
 
-	protected void updateSelection(char direction) {
-		switch(direction) {
-			case 'A' -> { // up arrow
-				selectedIndex--;
-				if(selectedIndex < 0) {
-					selectedIndex = 0;
-				}
+	private void select(Console console, int position) {
+		if(visibleCount == 0) return;
+		position = Math.max(0, Math.min(position, visibleCount - 1));
+		if(position == selected) return;
+
+		int previous = selected;
+		selected = position;
+		selectedIndex = visible[position];
+		if(position < top || position >= top + rows) {
+			top = Math.max(0, Math.min(position - rows / 2, visibleCount - rows));
+			drawList(console);
+		} else {
+			drawRow(console, previous);
+			drawRow(console, position);
+		}
+	}
+
+	private void showAll() {
+		for(int i = 0; i < options.length; i++) {
+			visible[i] = i;
+		}
+		visibleCount = options.length;
+		selected = Math.max(0, Math.min(selectedIndex, options.length - 1));
+		selectedIndex = selected;
+		top = Math.max(0, Math.min(selected - rows / 2, visibleCount - rows));
+	}
+
+	/**
+	 * Adds a character to the filter and narrows the range of {@link #sorted} matching it, searching only the range that
+	 * matched before: the keys in it all share the filter so far, so they are in order of their next character.
+	 */
+	private void type(char c) {
+		if(sorted == null) {
+			keys = new String[options.length];
+			for(int i = 0; i < options.length; i++) {
+				keys[i] = options[i].toLowerCase(Locale.ROOT);
 			}
-			case 'B' -> { // down arrow
-				selectedIndex++;
-				if(selectedIndex >= options.size()) {
-					selectedIndex = options.size() - 1;
-				}
+			sorted = IntStream.range(0, options.length).boxed()
+					.sorted(Comparator.comparing(i -> keys[i]))
+					.mapToInt(Integer::intValue)
+					.toArray();
+		}
+
+		int depth = filter.length();
+		int from = depth == 0 ? 0 : rangeStarts[depth - 1];
+		int to = depth == 0 ? sorted.length : rangeEnds[depth - 1];
+		c = Character.toLowerCase(c);
+
+		int start = firstAbove(from, to, depth, c - 1);
+		int end = firstAbove(start, to, depth, c);
+
+		if(depth == rangeStarts.length) {
+			rangeStarts = Arrays.copyOf(rangeStarts, depth * 2);
+			rangeEnds = Arrays.copyOf(rangeEnds, depth * 2);
+		}
+		rangeStarts[depth] = start;
+		rangeEnds[depth] = end;
+		filter.append(c);
+	}
+
+	/**
+	 * @return the first position in {@code [from, to)} of {@link #sorted} whose key has a character above {@code c} at {@code index},
+	 * counting keys too short to have one as {@code -1}
+	 */
+	private int firstAbove(int from, int to, int index, int c) {
+		while(from < to) {
+			int mid = (from + to) >>> 1;
+			String key = keys[sorted[mid]];
+			if((index < key.length() ? key.charAt(index) : -1) > c) {
+				to = mid;
+			} else {
+				from = mid + 1;
+			}
+		}
+		return from;
+	}
+
+	/**
+	 * Shows just the options matching the filter, keeping the selection if it still matches.
+	 */
+	private void filtered(Console console) {
+		if(filter.isEmpty()) {
+			showAll();
+		} else {
+			int start = rangeStarts[filter.length() - 1], end = rangeEnds[filter.length() - 1];
+			visibleCount = end - start;
+			System.arraycopy(sorted, start, visible, 0, visibleCount);
+			Arrays.sort(visible, 0, visibleCount);
+
+			selected = visibleCount == 0 ? -1 : Math.max(0, Arrays.binarySearch(visible, 0, visibleCount, selectedIndex));
+			if(selected >= 0) {
+				selectedIndex = visible[selected];
 			}
+			top = Math.max(0, Math.min(selected - rows / 2, visibleCount - rows));
+		}
+		drawList(console);
+	}
+
+	private void drawList(Console console) {
+		int shown = Math.min(rows, visibleCount - top);
+		for(int row = 0; row < Math.max(shown, drawnRows); row++) {
+			drawRow(console, top + row);
+		}
+		drawnRows = shown;
+
+		console.moveCursor(promptLines + Math.min(rows, options.length), 0);
+		console.print("\033[2K");
+		if(!filter.isEmpty()) {
+			console.print("Filter: ");
+			console.print(filter);
+			console.print(" (");
+			console.print(visibleCount);
+			console.print(" matching)");
+		} else if(options.length > rows) {
+			console.print("Type to filter ");
+			console.print(options.length);
+			console.print(" options");
+		}
+	}
+
+	private void drawRow(Console console, int position) {
+		console.moveCursor(promptLines + position - top, 0);
+		console.print("\033[2K");
+		if(position >= visibleCount) return;
+
+		int index = visible[position];
+		if(position == selected) {
+			console.print("\033[");
+			console.print(colorCode);
+			console.print(";1m");
+		}
+		console.print(index + 1);
+		console.print(". ");
+		console.print(options[index]);
+		if(position == selected) {
+			console.print("\033[0m");
 		}
 	}
 
@@ -113,38 +326,55 @@ public class SelectionModal {
 		if(options.length == 0) {
 			throw new IllegalArgumentException("Must have at least one option");
 		}
-		HorizontalSelectionModal sm = new HorizontalSelectionModal(prompt);
-		for(T t : options) {
-			sm.options.addLast(String.valueOf(t));
+		String[] strings = new String[options.length];
+		for(int i = 0; i < options.length; i++) {
+			strings[i] = String.valueOf(options[i]);
 		}
-
-		return sm;
+		return new HorizontalSelectionModal(prompt, strings);
 	}
 
+	/**
+	 * All the options on one line, picked with left and right.
+	 */
 	private static final class HorizontalSelectionModal extends SelectionModal {
-		private HorizontalSelectionModal(String prompt) {
-			super(prompt);
+		private HorizontalSelectionModal(String prompt, String[] options) {
+			super(prompt, options);
 		}
 
 		@Override
-		protected String listItem(int index, String item) {
-			return item + " ";
-		}
+		public int displayOn(Console console) {
+			console.clearScreen();
+			boolean hidden = console.isCursorShown();
+			console.hideCursor();
+			console.println(prompt);
 
-		@Override
-		protected void updateSelection(char direction) {
-			switch(direction) {
-				case 'D' -> { // left arrow
-					selectedIndex--;
-					if(selectedIndex < 0) {
-						selectedIndex = 0;
+			int numNewLines = (int) prompt.lines().count();
+
+			while(true) {
+				console.moveCursor(numNewLines, 0);
+				for(int i = 0; i < options.length; i++) {
+					if(i == selectedIndex) {
+						console.print("\033[");
+						console.print(colorCode);
+						console.print(";1m");
 					}
+					console.print(options[i]);
+					if(i == selectedIndex) {
+						console.print("\033[0m");
+					}
+					console.print(' ');
 				}
-				case 'C' -> { // right arrow
-					selectedIndex++;
-					if(selectedIndex >= options.size()) {
-						selectedIndex = options.size() - 1;
+
+				KeyEvent input = console.readKey();
+				if(input.getKey() == Key.LEFT) {
+					selectedIndex = Math.max(selectedIndex - 1, 0);
+				} else if(input.getKey() == Key.RIGHT) {
+					selectedIndex = Math.min(selectedIndex + 1, options.length - 1);
+				} else if(input.getKey() == Key.ENTER || input.is(' ') || input.getKey() == Key.EOF) {
+					if(!hidden) {
+						console.showCursor();
 					}
+					return selectedIndex;
 				}
 			}
 		}
@@ -0,0 +1,35 @@
+package dev.rdh.games;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a class of game settings, saved as one section of an INI file.
+ * <p>
+ * The {@code processor} project generates a {@link SettingsCodec} for it at compile time, named after the class with
+ * {@code Codec} on the end and put in the same package, which reads and writes each {@link Setting} field directly.
+ * Settings can be {@code boolean}, {@code char}, {@code int}, {@code long}, {@code double}, {@link String} or an enum,
+ * and can't be private or final.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.SOURCE)
+public @interface Settings {
+	/**
+	 * the section header, without the brackets
+	 */
+	String section();
+
+	/**
+	 * the file name, in the same directory as {@link SaveFile}s
+	 */
+	String file();
+
+	/**
+	 * Marks a field of a {@link Settings} class to save. Its key in the file is its name, capitalized.
+	 */
+	@Target(ElementType.FIELD)
+	@Retention(RetentionPolicy.SOURCE)
+	@interface Setting {}
+}
@@ -0,0 +1,64 @@
+package dev.rdh.games;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Reads and writes the fields of a {@link Settings} class, generated for each one at compile time.
+ */
+public interface SettingsCodec<T> {
+	/**
+	 * @see Settings#section()
+	 */
+	String section();
+
+	/**
+	 * @see Settings#file()
+	 */
+	String file();
+
+	/**
+	 * Sets the setting called {@code key}, written either way its first letter can be cased.
+	 *
+	 * @return whether there is a setting called {@code key}
+	 * @throws IllegalArgumentException if {@code value} can't be read as the setting's type
+	 */
+	boolean set(T settings, String key, String value);
+
+	/**
+	 * Sets every setting of {@code to} to what it is in {@code from}.
+	 */
+	void copy(T from, T to);
+
+	/**
+	 * Writes every setting as a {@code Key=value} line.
+	 */
+	void write(T settings, Appendable out) throws IOException;
+
+	/**
+	 * Writes every setting as its name and value, for {@link #read(Object, DataInput)}.
+	 */
+	void write(T settings, DataOutput out) throws IOException;
+
+	/**
+	 * Reads settings written by {@link #write(Object, DataOutput)}, leaving any it doesn't have as they are.
+	 */
+	void read(T settings, DataInput in) throws IOException;
+
+	static boolean parseBoolean(String value) {
+		return switch(value.trim().toLowerCase(Locale.ROOT)) {
+			case "true", "yes" -> true;
+			case "false", "no" -> false;
+			default -> throw new IllegalArgumentException("Not true or false: " + value);
+		};
+	}
+
+	static char parseChar(String value) {
+		if(value.length() != 1) {
+			throw new IllegalArgumentException("Not a single character: " + value);
+		}
+		return value.charAt(0);
+	}
+}
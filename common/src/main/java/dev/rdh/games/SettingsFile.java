@@ -0,0 +1,108 @@
+package dev.rdh.games;
+
+import lombok.Getter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The INI file a {@link Settings} class is kept in, read and written through its generated {@link SettingsCodec}.
+ * <p>
+ * Lines that can't be used, like keys no setting has or values of the wrong type, are skipped and listed in
+ * {@link #getProblems()} rather than failing the load, so a file from another version of the game still loads.
+ */
+public final class SettingsFile<T> {
+	private final SettingsCodec<T> codec;
+
+	@Getter
+	private final Path path;
+
+	/**
+	 * what was wrong with the file the last time it was loaded
+	 */
+	@Getter
+	private List<String> problems = List.of();
+
+	public SettingsFile(SettingsCodec<T> codec) {
+		this.codec = codec;
+		this.path = SaveFile.directory().resolve(codec.file());
+	}
+
+	/**
+	 * Sets what the file has on {@code settings}, leaving the rest as they are.
+	 *
+	 * @return {@code settings}
+	 */
+	public T load(T settings) {
+		List<String> problems = new ArrayList<>();
+		try(BufferedReader in = Files.newBufferedReader(path)) {
+			String header = in.readLine();
+			if(header == null || !header.trim().equals("[" + codec.section() + "]")) {
+				problems.add(codec.file() + ": not a [" + codec.section() + "] file");
+				return settings;
+			}
+
+			String line;
+			for(int number = 2; (line = in.readLine()) != null; number++) {
+				if(line.isBlank() || line.startsWith(";") || line.startsWith("#")) continue;
+
+				int equals = line.indexOf('=');
+				if(equals <= 0) {
+					problems.add(codec.file() + " line " + number + ": expected Key=value");
+					continue;
+				}
+				String key = line.substring(0, equals).trim();
+				try {
+					if(!codec.set(settings, key, line.substring(equals + 1))) {
+						problems.add(codec.file() + " line " + number + ": unknown setting " + key);
+					}
+				} catch (IllegalArgumentException e) {
+					problems.add(codec.file() + " line " + number + ": bad value for " + key + ": " + e.getMessage());
+				}
+			}
+		} catch (NoSuchFileException e) {
+			// nothing saved yet
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} finally {
+			this.problems = List.copyOf(problems);
+		}
+		return settings;
+	}
+
+	/**
+	 * Lists what was wrong with the file the last time it was loaded, if anything was, and waits for enter.
+	 */
+	public void showProblems(Console console) {
+		if(problems.isEmpty()) return;
+		console.clearScreen();
+		for(String problem : problems) {
+			console.println("Skipped " + problem);
+		}
+		console.println("Press enter to continue");
+		console.waitForEnter();
+	}
+
+	/**
+	 * Replaces the file with {@code settings}, the way {@link SaveFile} replaces saves, so it's never left half written.
+	 */
+	public void save(T settings) {
+		StringBuilder text = new StringBuilder();
+		text.append('[').append(codec.section()).append("]\n");
+		try {
+			codec.write(settings, text);
+			SaveFile.replace(path, StandardCharsets.UTF_8.encode(CharBuffer.wrap(text)));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		problems = List.of();
+	}
+}
@@ -0,0 +1,42 @@
+package dev.rdh.games;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+class SttyTerminal extends Terminal {
+	private String originalStty;
+
+	@Override
+	protected void enter() {
+		// save and switch in a single process
+		originalStty = stty("-g < /dev/tty; stty -icanon min 1 -echo").trim();
+	}
+
+	@Override
+	protected void setEcho(boolean echo) {
+		stty(echo ? "echo" : "-echo");
+	}
+
+	@Override
+	protected void exit() {
+		if(originalStty != null && !originalStty.isEmpty()) {
+			stty(originalStty);
+		}
+	}
+
+	private static String stty(final String args) {
+		try {
+			ProcessBuilder pb = new ProcessBuilder("sh", "-c", "stty " + args + " < /dev/tty");
+			pb.redirectError(ProcessBuilder.Redirect.DISCARD);
+			Process process = pb.start();
+			String out = new String(process.getInputStream().readAllBytes());
+			process.waitFor();
+			return out;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return "";
+		}
+	}
+}
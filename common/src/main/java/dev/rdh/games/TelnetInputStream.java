@@ -0,0 +1,99 @@
+package dev.rdh.games;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static dev.rdh.games.TelnetTerminal.*;
+
+/**
+ * Strips telnet commands out of what a client sends, leaving just the keys typed.
+ * <p>
+ * Telnet sends Enter as {@code CR LF} or {@code CR NUL}, which would otherwise read as two keys, so only the {@code CR} is kept.
+ */
+public class TelnetInputStream extends FilterInputStream {
+	private boolean afterCr = false;
+
+	public TelnetInputStream(InputStream in) {
+		super(in);
+	}
+
+	@Override
+	public int read() throws IOException {
+		while(true) {
+			int b = in.read();
+			if(b == IAC) {
+				b = command();
+				if(b != IAC) {
+					if(b == -1) return -1;
+					continue;
+				}
+			}
+
+			boolean wasAfterCr = afterCr;
+			afterCr = b == '\r';
+			if(wasAfterCr && (b == '\n' || b == 0)) continue;
+			return b;
+		}
+	}
+
+	/**
+	 * reads the rest of a command after {@code IAC}
+	 *
+	 * @return {@code IAC} for an escaped 255 byte, -1 at the end of the stream, or 0 for anything else
+	 */
+	private int command() throws IOException {
+		int command = in.read();
+		switch(command) {
+			case -1, IAC -> {
+				return command;
+			}
+			case WILL, WONT, DO, DONT -> {
+				return in.read() == -1 ? -1 : 0;
+			}
+			case SB -> {
+				// subnegotiation runs until IAC SE
+				int previous = 0, b;
+				while((b = in.read()) != -1) {
+					if(previous == IAC && b == SE) return 0;
+					previous = previous == IAC && b == IAC ? 0 : b;
+				}
+				return -1;
+			}
+			default -> {
+				return 0;
+			}
+		}
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if(len == 0) return 0;
+
+		int first = read();
+		if(first == -1) return -1;
+		b[off] = (byte) first;
+
+		int n = 1;
+		while(n < len && in.available() > 0) {
+			int next = read();
+			if(next == -1) break;
+			b[off + n++] = (byte) next;
+		}
+		return n;
+	}
+
+	@Override
+	public long skip(long n) throws IOException {
+		long skipped = 0;
+		while(skipped < n && read() != -1) {
+			skipped++;
+		}
+		return skipped;
+	}
+
+	@Override
+	public boolean markSupported() {
+		return false;
+	}
+}
@@ -0,0 +1,49 @@
+package dev.rdh.games;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import static dev.rdh.games.TelnetTerminal.IAC;
+
+/**
+ * Encodes what a {@link Console} prints for a telnet client: a bare {@code LF} becomes {@code CR LF}, the protocol's line ending,
+ * and a 255 byte is doubled so it isn't read as {@code IAC}.
+ * <p>
+ * Commands from {@link TelnetTerminal} go to the stream underneath, since they must reach the client as they are.
+ */
+public class TelnetOutputStream extends FilterOutputStream {
+	private byte[] encoded = new byte[4096];
+	private boolean afterCr = false;
+
+	public TelnetOutputStream(OutputStream out) {
+		super(out);
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		write(new byte[] { (byte) b }, 0, 1);
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		// at worst every byte is doubled
+		if(encoded.length < len * 2) {
+			encoded = new byte[Math.max(encoded.length * 2, len * 2)];
+		}
+
+		int n = 0;
+		for(int i = off; i < off + len; i++) {
+			int c = b[i] & 0xFF;
+			if(c == '\n' && !afterCr) {
+				encoded[n++] = '\r';
+			} else if(c == IAC) {
+				encoded[n++] = (byte) IAC;
+			}
+			encoded[n++] = (byte) c;
+			afterCr = c == '\r';
+		}
+		// one write per frame, as the console made it
+		out.write(encoded, 0, n);
+	}
+}
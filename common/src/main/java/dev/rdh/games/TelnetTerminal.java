@@ -0,0 +1,57 @@
+package dev.rdh.games;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * A terminal at the other end of a telnet connection, switched into character-at-a-time mode by option negotiation instead of {@code stty}.
+ * <p>
+ * Asking to echo ourselves turns the client's local echo off, and suppressing go-ahead stops it waiting for whole lines.
+ * Whatever the client says back is dropped by {@link TelnetInputStream}.
+ */
+public class TelnetTerminal extends Terminal {
+	static final int IAC = 255, DONT = 254, DO = 253, WONT = 252, WILL = 251, SB = 250, SE = 240;
+	static final int ECHO = 1, SUPPRESS_GO_AHEAD = 3, LINEMODE = 34;
+
+	private final OutputStream out;
+
+	public TelnetTerminal(OutputStream out) {
+		this.out = out;
+	}
+
+	@Override
+	protected void enter() {
+		send(IAC, WILL, ECHO, IAC, WILL, SUPPRESS_GO_AHEAD, IAC, DO, SUPPRESS_GO_AHEAD, IAC, DONT, LINEMODE);
+	}
+
+	@Override
+	protected void setEcho(boolean echo) {
+		// the client echoes locally exactly when we say we won't
+		send(IAC, echo ? WONT : WILL, ECHO);
+	}
+
+	@Override
+	protected void exit() {
+		send(IAC, WONT, ECHO);
+	}
+
+	@Override
+	public boolean isProcessWide() {
+		return false;
+	}
+
+	private void send(int... bytes) {
+		byte[] command = new byte[bytes.length];
+		for(int i = 0; i < bytes.length; i++) {
+			command[i] = (byte) bytes[i];
+		}
+
+		try {
+			out.write(command);
+			out.flush();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
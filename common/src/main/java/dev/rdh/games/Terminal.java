@@ -0,0 +1,115 @@
+package dev.rdh.games;
+
+/**
+ * Puts the terminal into the raw, no-echo mode the games need and back again.
+ * <p>
+ * Mode changes are tracked here so that only real transitions reach the backend,
+ * and nested {@link Console}s share one raw-mode session: the terminal is only restored
+ * once the last of them is closed.
+ */
+public abstract class Terminal {
+	public static final Terminal NONE = new Terminal() {
+		@Override
+		protected void enter() {}
+
+		@Override
+		protected void setEcho(boolean echo) {}
+
+		@Override
+		protected void exit() {}
+	};
+
+	private static Terminal system;
+
+	private int users = 0;
+	private boolean echo = true;
+
+	/**
+	 * The terminal backing {@link System#in}, chosen by the {@code games.terminal} system property
+	 * ({@code ffm}, {@code stty} or {@code none}). Defaults to {@code ffm} where the runtime can call {@code tcsetattr}
+	 * itself, which is Linux on Java 22 and later, to {@code stty} everywhere else but Windows, and to {@code none} there.
+	 */
+	public static synchronized Terminal system() {
+		if(system == null) {
+			String backend = System.getProperty("games.terminal");
+			if(backend == null) {
+				if(System.getProperty("os.name").toLowerCase().contains("wind")) {
+					system = NONE;
+				} else {
+					Terminal ffm = FfmTerminal.create();
+					system = ffm != null ? ffm : new SttyTerminal();
+				}
+				return system;
+			}
+
+			system = switch(backend) {
+				case "ffm" -> {
+					Terminal ffm = FfmTerminal.create();
+					if(ffm == null) {
+						throw new IllegalStateException("The ffm terminal backend needs Linux and Java 22 or later");
+					}
+					yield ffm;
+				}
+				case "stty" -> new SttyTerminal();
+				case "none" -> NONE;
+				default -> throw new IllegalArgumentException("Unknown terminal backend: " + backend);
+			};
+		}
+		return system;
+	}
+
+	/**
+	 * @return whether this was the first user, which switched the terminal over
+	 */
+	public synchronized boolean acquire() {
+		if(users++ == 0) {
+			enter();
+			echo = false;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * @return whether this was the last user, which put the terminal back
+	 */
+	public synchronized boolean release() {
+		if(users <= 0) return false;
+		if(--users == 0) {
+			exit();
+			echo = true;
+			return true;
+		}
+		return false;
+	}
+
+	public synchronized boolean isEcho() {
+		return echo;
+	}
+
+	public synchronized void echo(boolean echo) {
+		if(users > 0 && this.echo != echo) {
+			setEcho(echo);
+			this.echo = echo;
+		}
+	}
+
+	/**
+	 * @return whether this is the terminal the process itself runs in, which consoles on it put back if the JVM exits while they are open
+	 */
+	public boolean isProcessWide() {
+		return true;
+	}
+
+	/**
+	 * Saves the current mode and switches to non-canonical, no-echo input.
+	 */
+	protected abstract void enter();
+
+	protected abstract void setEcho(boolean echo);
+
+	/**
+	 * Restores the mode saved by {@link #enter()}.
+	 */
+	protected abstract void exit();
+}
@@ -0,0 +1,86 @@
+package dev.rdh.games.util;
+
+import java.util.Arrays;
+
+/**
+ * Counts non-negative {@code long} values in log-linear buckets, like HdrHistogram:
+ * every power of two is split into {@value #SUB_BUCKETS} equal buckets, so any value is known to within about 3%
+ * using a fixed two thousand or so counters, and recording never allocates.
+ * <p>
+ * Not thread safe.
+ */
+public class Histogram {
+	private static final int SUB_BITS = 6;
+	private static final int SUB_BUCKETS = 1 << (SUB_BITS - 1);
+
+	private final long[] counts = new long[index(Long.MAX_VALUE) + 1];
+
+	private long count, sum;
+	private long min = Long.MAX_VALUE, max = 0;
+
+	public void record(long value) {
+		if(value < 0) return;
+		counts[index(value)]++;
+		count++;
+		sum += value;
+		min = Math.min(min, value);
+		max = Math.max(max, value);
+	}
+
+	/**
+	 * values below {@code 2 * SUB_BUCKETS} get a bucket each; above that, every bucket is a {@code 1 / SUB_BUCKETS} slice of a power of two
+	 */
+	private static int index(long value) {
+		int shift = Math.max(0, 64 - Long.numberOfLeadingZeros(value) - SUB_BITS);
+		return (shift << (SUB_BITS - 1)) + (int) (value >>> shift);
+	}
+
+	/**
+	 * @return the largest value that falls in the bucket
+	 */
+	private static long highest(int index) {
+		if(index < 2 * SUB_BUCKETS) return index;
+		int shift = (index >>> (SUB_BITS - 1)) - 1;
+		long lowest = (long) (index - (shift << (SUB_BITS - 1))) << shift;
+		return lowest + (1L << shift) - 1;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public long getMin() {
+		return count == 0 ? 0 : min;
+	}
+
+	public long getMax() {
+		return max;
+	}
+
+	public double getMean() {
+		return count == 0 ? 0 : (double) sum / count;
+	}
+
+	/**
+	 * @param percentile from 0 to 100
+	 * @return a value at least as big as that percentage of the values recorded, accurate to the size of its bucket
+	 */
+	public long getPercentile(double percentile) {
+		if(count == 0) return 0;
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+		long seen = 0;
+		for(int i = 0; i < counts.length; i++) {
+			seen += counts[i];
+			if(seen >= rank) {
+				return Math.min(highest(i), max);
+			}
+		}
+		return max;
+	}
+
+	public void reset() {
+		Arrays.fill(counts, 0);
+		count = sum = max = 0;
+		min = Long.MAX_VALUE;
+	}
+}
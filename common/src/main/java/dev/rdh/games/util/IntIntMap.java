@@ -0,0 +1,78 @@
+package dev.rdh.games.util;
+
+import java.util.Arrays;
+
+/**
+ * An open-addressing hash map from {@code int} to {@code int}, without boxing.
+ */
+public class IntIntMap {
+	private static final int FREE = Integer.MIN_VALUE;
+
+	private int[] keys;
+	private int[] values;
+	private int size = 0;
+
+	public IntIntMap(int expectedSize) {
+		int capacity = Integer.highestOneBit(Math.max(expectedSize * 2 - 1, 1)) << 1;
+		this.keys = new int[capacity];
+		this.values = new int[capacity];
+		Arrays.fill(keys, FREE);
+	}
+
+	/**
+	 * @param key any value but {@link Integer#MIN_VALUE}
+	 */
+	public int getOrDefault(int key, int defaultValue) {
+		int i = indexOf(key);
+		return keys[i] == FREE ? defaultValue : values[i];
+	}
+
+	/**
+	 * @param key any value but {@link Integer#MIN_VALUE}
+	 */
+	public void put(int key, int value) {
+		int i = indexOf(key);
+		if(keys[i] == FREE) {
+			if((size + 1) * 2 > keys.length) {
+				rehash();
+				i = indexOf(key);
+			}
+			keys[i] = key;
+			size++;
+		}
+		values[i] = value;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public void clear() {
+		Arrays.fill(keys, FREE);
+		size = 0;
+	}
+
+	private int indexOf(int key) {
+		int mask = keys.length - 1;
+		int hash = key * 0x9E3779B9;
+		int i = (hash ^ (hash >>> 16)) & mask;
+		while(keys[i] != FREE && keys[i] != key) {
+			i = (i + 1) & mask;
+		}
+		return i;
+	}
+
+	private void rehash() {
+		int[] oldKeys = keys, oldValues = values;
+		keys = new int[oldKeys.length << 1];
+		values = new int[oldValues.length << 1];
+		Arrays.fill(keys, FREE);
+		for(int i = 0; i < oldKeys.length; i++) {
+			if(oldKeys[i] != FREE) {
+				int j = indexOf(oldKeys[i]);
+				keys[j] = oldKeys[i];
+				values[j] = oldValues[i];
+			}
+		}
+	}
+}
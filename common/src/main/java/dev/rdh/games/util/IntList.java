@@ -0,0 +1,45 @@
+package dev.rdh.games.util;
+
+import java.util.Arrays;
+
+/**
+ * A growable list of {@code int}s, meant to be cleared and reused rather than reallocated.
+ */
+public class IntList {
+	private int[] elements;
+	private int size = 0;
+
+	public IntList() {
+		this(16);
+	}
+
+	public IntList(int capacity) {
+		this.elements = new int[Math.max(capacity, 1)];
+	}
+
+	public void add(int value) {
+		if(size == elements.length) {
+			elements = Arrays.copyOf(elements, elements.length << 1);
+		}
+		elements[size++] = value;
+	}
+
+	public int get(int index) {
+		if(index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException(index);
+		}
+		return elements[index];
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public void clear() {
+		size = 0;
+	}
+}
@@ -0,0 +1,58 @@
+package dev.rdh.games.util;
+
+import java.util.NoSuchElementException;
+
+/**
+ * A growable ring buffer of {@code int}s, meant to be cleared and reused rather than reallocated.
+ */
+public class IntQueue {
+	private int[] elements;
+	private int head = 0, size = 0;
+
+	public IntQueue() {
+		this(64);
+	}
+
+	public IntQueue(int capacity) {
+		this.elements = new int[Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1];
+	}
+
+	public void add(int value) {
+		if(size == elements.length) {
+			grow();
+		}
+		elements[(head + size++) & (elements.length - 1)] = value;
+	}
+
+	public int poll() {
+		if(size == 0) {
+			throw new NoSuchElementException();
+		}
+		int value = elements[head];
+		head = (head + 1) & (elements.length - 1);
+		size--;
+		return value;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public void clear() {
+		head = 0;
+		size = 0;
+	}
+
+	private void grow() {
+		int[] grown = new int[elements.length << 1];
+		int firstPart = Math.min(size, elements.length - head);
+		System.arraycopy(elements, head, grown, 0, firstPart);
+		System.arraycopy(elements, 0, grown, firstPart, size - firstPart);
+		elements = grown;
+		head = 0;
+	}
+}
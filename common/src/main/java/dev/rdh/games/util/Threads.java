@@ -0,0 +1,74 @@
+package dev.rdh.games.util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Uses virtual threads when the runtime has them, and daemon platform threads when it doesn't.
+ * <p>
+ * The code targets a release without virtual threads, so they are looked up reflectively.
+ */
+public final class Threads {
+	private Threads() {}
+
+	private static final Method OF_VIRTUAL, NAME, START, NEW_VIRTUAL_EXECUTOR;
+
+	static {
+		Method ofVirtual = null, name = null, start = null, newVirtualExecutor = null;
+		try {
+			ofVirtual = Thread.class.getMethod("ofVirtual");
+			Class<?> builder = Class.forName("java.lang.Thread$Builder");
+			name = builder.getMethod("name", String.class);
+			start = builder.getMethod("start", Runnable.class);
+			newVirtualExecutor = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+		} catch (ReflectiveOperationException ignored) {
+			ofVirtual = null;
+		}
+		OF_VIRTUAL = ofVirtual;
+		NAME = name;
+		START = start;
+		NEW_VIRTUAL_EXECUTOR = newVirtualExecutor;
+	}
+
+	public static boolean hasVirtualThreads() {
+		return OF_VIRTUAL != null;
+	}
+
+	/**
+	 * Starts a thread that won't keep the JVM alive.
+	 */
+	public static Thread start(String name, Runnable task) {
+		if(hasVirtualThreads()) {
+			try {
+				return (Thread) START.invoke(NAME.invoke(OF_VIRTUAL.invoke(null), name), task);
+			} catch (ReflectiveOperationException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+
+		Thread thread = new Thread(task, name);
+		thread.setDaemon(true);
+		thread.start();
+		return thread;
+	}
+
+	/**
+	 * @return an executor that runs every task on a new virtual thread, or on pooled daemon threads without them
+	 */
+	public static ExecutorService newPerTaskExecutor(String name) {
+		if(hasVirtualThreads()) {
+			try {
+				return (ExecutorService) NEW_VIRTUAL_EXECUTOR.invoke(null);
+			} catch (ReflectiveOperationException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+
+		return Executors.newCachedThreadPool(task -> {
+			Thread thread = new Thread(task, name);
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+}
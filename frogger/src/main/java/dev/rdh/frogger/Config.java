@@ -0,0 +1,40 @@
+package dev.rdh.frogger;
+
+import dev.rdh.games.ConfigService;
+import dev.rdh.games.Console;
+import dev.rdh.games.Settings;
+import dev.rdh.games.Settings.Setting;
+
+@Settings(section = "Frogger", file = "frogger.ini")
+public class Config {
+	private static final ConfigService<Config> SERVICE = ConfigService.of(new ConfigCodec(), Config::new);
+
+	@Setting public boolean useWASD = true;
+	@Setting public char quit = 'q';
+	@Setting public int lives = 3;
+
+	/**
+	 * the level to start on, each one a quarter faster than the last
+	 */
+	@Setting public int level = 1;
+
+	private Config() {}
+
+	/**
+	 * @return a copy of the settings as last saved, to read or change and {@link #save()}
+	 */
+	public static Config load() {
+		return SERVICE.get();
+	}
+
+	/**
+	 * Tells the player what was wrong with the file when it was last loaded, such as settings this version doesn't have.
+	 */
+	public static void showProblems(Console console) {
+		SERVICE.showProblems(console);
+	}
+
+	public void save() {
+		SERVICE.save(this);
+	}
+}
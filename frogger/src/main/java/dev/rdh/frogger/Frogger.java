@@ -1,7 +1,30 @@
 package dev.rdh.frogger;
 
+import dev.rdh.games.Console;
+
 public class Frogger {
 	public static void main(String[] args) {
+		if(System.getProperty("os.name").toLowerCase().contains("wind")) {
+			System.err.println("This game is not supported on Windows!");
+			return;
+		}
+
+		try(Console console = new Console()) {
+			play(console);
+		} catch(Exception e) {
+			e.printStackTrace(System.err);
+		}
+	}
 
+	/**
+	 * Runs one game on a console that is already open.
+	 */
+	public static void play(Console console) {
+		console.echo(false);
+		console.hideCursor();
+		Config config = Config.load();
+		Config.showProblems(console);
+		new Game(console, config).run();
+		console.clearScreen();
 	}
 }
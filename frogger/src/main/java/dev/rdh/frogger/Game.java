@@ -0,0 +1,256 @@
+package dev.rdh.frogger;
+
+import dev.rdh.games.Console;
+import dev.rdh.games.GameLoop;
+import dev.rdh.games.KeyEvent;
+import dev.rdh.games.Screen;
+
+import java.util.Arrays;
+
+public class Game extends GameLoop {
+	private static final int TICKS_PER_SECOND = 60;
+	private static final int FRAMES_PER_SECOND = 30;
+
+	/**
+	 * in columns; every column is drawn two characters wide
+	 */
+	private static final int WIDTH = 16;
+	private static final int HOME_ROW = 0;
+	private static final int MEDIAN_ROW = 6;
+	private static final int START_ROW = 12;
+	private static final int[] BAYS = { 1, 4, 7, 10, 13 };
+
+	private static final int GRASS = Screen.rgb(0x2E7D32);
+	private static final int WATER = Screen.rgb(0x1565C0);
+	private static final int ROAD = Screen.rgb(0x303030);
+	private static final int LOG = Screen.rgb(0x795548);
+	private static final int TURTLE = Screen.rgb(0xC62828);
+	private static final int CAR = Screen.rgb(0xFDD835);
+	private static final int FROG = Screen.rgb(0x76FF03);
+	private static final int BLACK = Screen.rgb(0x000000);
+
+	private final Console console;
+	private final Config config;
+	private final Screen screen;
+
+	private final Lane[] lanes = new Lane[START_ROW + 1];
+	private final boolean[] filledBays = new boolean[BAYS.length];
+
+	private double frogX;
+	private int frogRow;
+	private int furthestRow;
+
+	private int lives;
+	private int score = 0;
+	private int level;
+
+	public Game(Console console, Config config) {
+		super(TICKS_PER_SECOND, FRAMES_PER_SECOND);
+		this.console = console;
+		this.config = config;
+		this.lives = Math.max(config.lives, 1);
+		this.level = Math.max(config.level, 1);
+		this.screen = console.screen(WIDTH * 2, START_ROW + 3);
+
+		lanes[1] = new Lane(true, "====    ====    ", 2);
+		lanes[2] = new Lane(true, "OO OO   OO OO     ", -1.5);
+		lanes[3] = new Lane(true, "======      ", 3);
+		lanes[4] = new Lane(true, "OO OO OO    ", -2);
+		lanes[5] = new Lane(true, "=====     ==== ", 1.5);
+		lanes[7] = new Lane(false, "  <<    <<      ", -3);
+		lanes[8] = new Lane(false, "   >>       >>>      ", 2);
+		lanes[9] = new Lane(false, "<     <     <      ", -4);
+		lanes[10] = new Lane(false, "  >>>          ", 1.5);
+		lanes[11] = new Lane(false, " <   <     <      ", -2.5);
+
+		resetFrog();
+	}
+
+	@Override
+	public void run() {
+		console.clearScreen();
+		super.run();
+		showGameOverScreen();
+	}
+
+	@Override
+	protected void update() {
+		KeyEvent key;
+		while(isRunning() && (key = console.pollKey()) != null) {
+			handleKey(key);
+		}
+
+		double seconds = tickSeconds();
+		double speedScale = 1 + (level - 1) * 0.25;
+		for(Lane lane : lanes) {
+			if(lane != null) {
+				lane.update(seconds, speedScale);
+			}
+		}
+
+		Lane lane = lanes[frogRow];
+		if(lane != null && lane.isRiver()) {
+			frogX += lane.getSpeed() * speedScale * seconds;
+		}
+
+		checkCollisions();
+	}
+
+	private void handleKey(KeyEvent key) {
+		switch(key.getKey()) {
+			case UP -> moveFrog(0, -1);
+			case DOWN -> moveFrog(0, 1);
+			case LEFT -> moveFrog(-1, 0);
+			case RIGHT -> moveFrog(1, 0);
+			case EOF -> stop();
+			default -> {
+				char c = key.toChar();
+				if(c == config.quit) {
+					stop();
+				} else if(config.useWASD) {
+					switch(c) {
+						case 'w' -> moveFrog(0, -1);
+						case 's' -> moveFrog(0, 1);
+						case 'a' -> moveFrog(-1, 0);
+						case 'd' -> moveFrog(1, 0);
+					}
+				}
+			}
+		}
+	}
+
+	private void moveFrog(int dx, int dy) {
+		int col = frogCol() + dx;
+		if(col < 0 || col >= WIDTH) return;
+		frogX = col;
+		frogRow = Math.max(HOME_ROW, Math.min(START_ROW, frogRow + dy));
+
+		if(frogRow < furthestRow) {
+			furthestRow = frogRow;
+			score += 10;
+		}
+	}
+
+	private void checkCollisions() {
+		int col = frogCol();
+		if(col < 0 || col >= WIDTH) {
+			die();
+			return;
+		}
+
+		if(frogRow == HOME_ROW) {
+			int bay = bayAt(col);
+			if(bay < 0 || filledBays[bay]) {
+				die();
+				return;
+			}
+
+			filledBays[bay] = true;
+			score += 50;
+			resetFrog();
+
+			for(boolean filled : filledBays) {
+				if(!filled) return;
+			}
+			score += 1000;
+			level++;
+			Arrays.fill(filledBays, false);
+			return;
+		}
+
+		Lane lane = lanes[frogRow];
+		if(lane != null && lane.isRiver() != lane.isOccupied(col)) {
+			die();
+		}
+	}
+
+	private void die() {
+		if(--lives <= 0) {
+			stop();
+			return;
+		}
+		resetFrog();
+	}
+
+	private void resetFrog() {
+		frogX = WIDTH / 2;
+		frogRow = START_ROW;
+		furthestRow = START_ROW;
+	}
+
+	private int frogCol() {
+		return (int) Math.floor(frogX + 0.5);
+	}
+
+	private static int bayAt(int col) {
+		for(int i = 0; i < BAYS.length; i++) {
+			if(BAYS[i] == col) return i;
+		}
+		return -1;
+	}
+
+	@Override
+	protected void render(double alpha) {
+		screen.clear();
+		screen.print(0, 0, "Frogger - Level " + level + "  Score: " + score + "  Lives: " + lives);
+
+		for(int row = HOME_ROW; row <= START_ROW; row++) {
+			for(int col = 0; col < WIDTH; col++) {
+				drawCell(row, col);
+			}
+		}
+
+		int col = frogCol();
+		if(col >= 0 && col < WIDTH) {
+			screen.set(frogRow + 1, col * 2, '@', FROG, background(frogRow, col));
+			screen.set(frogRow + 1, col * 2 + 1, '@', FROG, background(frogRow, col));
+		}
+
+		screen.render();
+	}
+
+	private void drawCell(int row, int col) {
+		char glyph = ' ';
+		int fg = BLACK;
+		int bg = background(row, col);
+
+		if(row == HOME_ROW) {
+			int bay = bayAt(col);
+			if(bay >= 0 && filledBays[bay]) {
+				glyph = '@';
+				fg = FROG;
+			}
+		} else if(lanes[row] != null) {
+			glyph = lanes[row].glyphAt(col);
+			if(lanes[row].isRiver() && glyph != ' ') {
+				fg = glyph == 'O' ? TURTLE : BLACK;
+			} else if(glyph != ' ') {
+				fg = CAR;
+			}
+		}
+
+		screen.set(row + 1, col * 2, glyph, fg, bg);
+		screen.set(row + 1, col * 2 + 1, glyph, fg, bg);
+	}
+
+	private int background(int row, int col) {
+		if(row == HOME_ROW) {
+			return bayAt(col) >= 0 ? WATER : GRASS;
+		}
+		if(row == MEDIAN_ROW || row == START_ROW) {
+			return GRASS;
+		}
+
+		Lane lane = lanes[row];
+		if(lane.isRiver()) {
+			return lane.isOccupied(col) ? LOG : WATER;
+		}
+		return ROAD;
+	}
+
+	private void showGameOverScreen() {
+		screen.print(START_ROW + 2, 0, lives <= 0 ? "Game over! Final score: " + score : "Final score: " + score);
+		screen.render();
+		console.readKey();
+	}
+}
@@ -0,0 +1,38 @@
+package dev.rdh.frogger;
+
+import lombok.Getter;
+
+/**
+ * A row of obstacles scrolling sideways, described by a pattern that repeats across the whole row.
+ * For a road lane anything that isn't a space kills the frog; for a river lane anything that isn't a space carries it.
+ */
+@Getter
+public class Lane {
+	private final boolean river;
+	private final String pattern;
+
+	/**
+	 * columns per second, positive to the right
+	 */
+	private final double speed;
+
+	private double offset = 0;
+
+	public Lane(boolean river, String pattern, double speed) {
+		this.river = river;
+		this.pattern = pattern;
+		this.speed = speed;
+	}
+
+	public void update(double seconds, double speedScale) {
+		offset = (offset + speed * speedScale * seconds) % pattern.length();
+	}
+
+	public char glyphAt(int col) {
+		return pattern.charAt(Math.floorMod((int) Math.floor(col - offset), pattern.length()));
+	}
+
+	public boolean isOccupied(int col) {
+		return glyphAt(col) != ' ';
+	}
+}
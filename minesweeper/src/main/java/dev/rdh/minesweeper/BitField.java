@@ -0,0 +1,172 @@
+package dev.rdh.minesweeper;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * A {@link MineField} stored as one bit per cell for mines, revealed and flagged cells, plus a byte per cell of adjacent mine counts.
+ * <p>
+ * Every row starts on a fresh {@code long}, so the cell at {@code (x, y)} is bit {@code x & 63} of word {@code y * stride + x / 64},
+ * and the bits past the end of a row are always zero.
+ */
+public class BitField implements MineField {
+	@Getter
+	private final int width, height;
+
+	/**
+	 * words per row
+	 */
+	private final int stride;
+
+	/**
+	 * the valid bits of the last word of each row
+	 */
+	private final long lastWordMask;
+
+	private final long[] mines, revealed, flagged;
+	private final byte[] adjacent;
+
+	public BitField(int width, int height) {
+		this.width = width;
+		this.height = height;
+		this.stride = (width + 63) >>> 6;
+		this.lastWordMask = -1L >>> (stride * 64 - width);
+
+		int words = stride * height;
+		this.mines = new long[words];
+		this.revealed = new long[words];
+		this.flagged = new long[words];
+		this.adjacent = new byte[width * height];
+	}
+
+	private int word(int x, int y) {
+		return y * stride + (x >>> 6);
+	}
+
+	private long mask(int w) {
+		return w % stride == stride - 1 ? lastWordMask : -1L;
+	}
+
+	@Override
+	public boolean isMine(int x, int y) {
+		return (mines[word(x, y)] & (1L << x)) != 0;
+	}
+
+	@Override
+	public boolean isRevealed(int x, int y) {
+		return (revealed[word(x, y)] & (1L << x)) != 0;
+	}
+
+	@Override
+	public boolean isFlagged(int x, int y) {
+		return (flagged[word(x, y)] & (1L << x)) != 0;
+	}
+
+	@Override
+	public int getAdjacentMines(int x, int y) {
+		return adjacent[y * width + x];
+	}
+
+	@Override
+	public void setMine(int x, int y) {
+		mines[word(x, y)] |= 1L << x;
+	}
+
+	@Override
+	public void addMine(int x, int y) {
+		if(isMine(x, y)) return;
+		setMine(x, y);
+
+		int minX = Math.max(x - 1, 0), maxX = Math.min(x + 1, width - 1);
+		for(int y1 = Math.max(y - 1, 0); y1 <= Math.min(y + 1, height - 1); y1++) {
+			for(int x1 = minX; x1 <= maxX; x1++) {
+				adjacent[y1 * width + x1]++;
+			}
+		}
+		adjacent[y * width + x]--;
+	}
+
+	@Override
+	public void computeAdjacency() {
+		Arrays.fill(adjacent, (byte) 0);
+
+		for(int y = 0; y < height; y++) {
+			for(int w = 0; w < stride; w++) {
+				// bit-sliced counters: the count for each bit position is b0 + 2 * b1 + 4 * b2 + 8 * b3
+				long b0 = 0, b1 = 0, b2 = 0, b3 = 0;
+
+				for(int row = Math.max(0, y - 1); row <= Math.min(height - 1, y + 1); row++) {
+					int i = row * stride + w;
+					long m = mines[i];
+					long before = w > 0 ? mines[i - 1] : 0;
+					long after = w < stride - 1 ? mines[i + 1] : 0;
+
+					for(int p = 0; p < 3; p++) {
+						long plane = switch(p) {
+							case 0 -> (m << 1) | (before >>> 63); // mine to the left
+							case 1 -> (m >>> 1) | (after << 63);  // mine to the right
+							default -> row == y ? 0 : m;          // mine directly above or below
+						};
+
+						long c0 = b0 & plane;
+						b0 ^= plane;
+						long c1 = b1 & c0;
+						b1 ^= c0;
+						long c2 = b2 & c1;
+						b2 ^= c1;
+						b3 ^= c2;
+					}
+				}
+
+				long any = (b0 | b1 | b2 | b3) & mask(w);
+				int base = y * width + (w << 6);
+				while(any != 0) {
+					int bit = Long.numberOfTrailingZeros(any);
+					any &= any - 1;
+					adjacent[base + bit] = (byte) (((b0 >>> bit) & 1)
+							| ((b1 >>> bit) & 1) << 1
+							| ((b2 >>> bit) & 1) << 2
+							| ((b3 >>> bit) & 1) << 3);
+				}
+			}
+		}
+	}
+
+	@Override
+	public void reveal(int x, int y) {
+		int w = word(x, y);
+		revealed[w] |= (1L << x) & ~flagged[w];
+	}
+
+	@Override
+	public void toggleFlag(int x, int y) {
+		int w = word(x, y);
+		flagged[w] ^= (1L << x) & ~revealed[w];
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(mines, 0);
+		Arrays.fill(revealed, 0);
+		Arrays.fill(adjacent, (byte) 0);
+	}
+
+	@Override
+	public void revealAll() {
+		for(int w = 0; w < mines.length; w++) {
+			flagged[w] &= mines[w];
+			revealed[w] = ~flagged[w] & mask(w);
+		}
+	}
+
+	@Override
+	public boolean allSafeRevealed() {
+		for(int w = 0; w < mines.length; w++) {
+			if((~mines[w] & ~revealed[w] & mask(w)) != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
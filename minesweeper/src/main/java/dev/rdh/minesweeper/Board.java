@@ -1,17 +1,80 @@
 package dev.rdh.minesweeper;
 
+import dev.rdh.games.Key;
+import dev.rdh.games.Screen;
+import dev.rdh.games.util.IntList;
+import dev.rdh.games.util.IntQueue;
+
 import lombok.Getter;
+import lombok.Setter;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
 
 public class Board {
+	private static final int BLACK = Screen.palette(30);
+	private static final int RED = Screen.palette(91);
+	private static final int WHITE = Screen.palette(37);
+
+	/**
+	 * what a cell can look like: revealed with 0 to 8 adjacent mines, then these, each selected or not
+	 */
+	static final int HIDDEN = 9, FLAGGED = 10, MINE = 11;
+	private static final int STATES = 12;
+
+	/**
+	 * glyph and colours of each state, then of each state when selected
+	 */
+	private static final char[] GLYPHS = new char[STATES * 2];
+	private static final int[] FGS = new int[STATES * 2], BGS = new int[STATES * 2];
+
+	static {
+		for(int state = 0; state < STATES; state++) {
+			GLYPHS[state] = GLYPHS[state + STATES] = switch(state) {
+				case 0 -> ' ';
+				case HIDDEN -> '.';
+				case FLAGGED -> 'F';
+				case MINE -> 'X';
+				default -> (char) ('0' + state);
+			};
+			FGS[state] = state == FLAGGED || state == MINE ? RED : Screen.DEFAULT;
+			BGS[state] = Screen.DEFAULT;
+			FGS[state + STATES] = state == MINE ? RED : BLACK;
+			BGS[state + STATES] = state == FLAGGED ? RED : state == MINE ? Screen.DEFAULT : WHITE;
+		}
+	}
+
+	private static final char[] MINES_LEFT = " mines left:".toCharArray();
+
+	/**
+	 * past this many changed cells in one turn, the whole board is redrawn instead
+	 */
+	private static final int MAX_TRACKED_CHANGES = 4096;
+
+	/**
+	 * the widest or tallest board a snapshot is read back as, well past anything playable but small enough that
+	 * a corrupt one can't ask for much memory
+	 */
+	private static final int MAX_SNAPSHOT_SIDE = 4096;
+
+	/**
+	 * how long to look for a board that can be solved without guessing before settling for any board
+	 */
+	private static final long NO_GUESS_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+
 	private int x, y;
 
 	@Getter
 	private final int width, height;
 
-	private final Cell[][] cells;
+	private final MineField field;
 
+	@Getter
 	private final int numMines;
 	private int numFlags = 0;
 
@@ -21,186 +84,406 @@ public class Board {
 	@Getter
 	private final String diffName;
 
-	private int safeSquaresOpened = 0;
+	/**
+	 * the start of the header, up to the number of mines left
+	 */
+	private final char[] title;
 
 	private boolean firstRevealed = false;
 
+	@Getter
+	private final long seed;
+	private final SplittableRandom random;
+
+	/**
+	 * the seed the current mines were placed with, for {@link MinePlacer}
+	 */
+	@Getter
+	private long layoutSeed;
+
+	/**
+	 * whether the mines should be placed so that the board can be solved from the first click without guessing
+	 */
+	@Getter
+	@Setter
+	private boolean noGuess;
+
+	/**
+	 * where layout seeds come from instead of being picked, when replaying a recorded game
+	 */
+	@Setter
+	private LongSupplier layoutSource;
+
+	/**
+	 * told every layout seed used, so a recording can give it back through {@link #setLayoutSource}
+	 */
+	@Setter
+	private LongConsumer layoutListener;
+
 	@Getter
 	private long startTime;
 
+	/**
+	 * cells as {@code y * width + x}, reused by every flood reveal
+	 */
+	private final IntQueue floodQueue = new IntQueue();
+
+	/**
+	 * cells as {@code y * width + x} that changed since they were last drawn
+	 */
+	private final IntList changed = new IntList();
+	private boolean allChanged = true;
+
 	public Board(int width, int height, int numMines, String diffName) {
+		this(width, height, numMines, diffName, ThreadLocalRandom.current().nextLong());
+	}
+
+	/**
+	 * @param seed decides where the mines go, given the same first click
+	 */
+	public Board(int width, int height, int numMines, String diffName, long seed) {
+		this.seed = seed;
+		this.random = new SplittableRandom(seed);
 		this.width = width;
 		this.height = height;
-		this.cells = new Cell[width][height];
+		this.field = MineField.create(width, height);
 		this.numMines = numMines;
 		this.diffName = diffName;
-		reset();
+		this.title = ("Minesweeper (" + diffName + ") - ").toCharArray();
 		x = width / 2;
 		y = height / 2;
 	}
 
-	private void reset() {
-		for(int x = 0; x < width; x++) {
-			for(int y = 0; y < height; y++) {
-				boolean wasFlagged = cells[x][y] != null && cells[x][y].isFlagged();
-				cells[x][y] = new Cell(false);
-				if(wasFlagged) {
-					cells[x][y].flag();
-				}
-			}
-		}
+	/**
+	 * Clears the board; the mines are placed again around the next cell revealed.
+	 */
+	public void regenerate() {
+		field.clear();
+		firstRevealed = false;
+		allChanged = true;
 	}
 
-	public void regenerate() {
-		reset();
-		ThreadLocalRandom random = ThreadLocalRandom.current();
-		for(int i = 0; i < numMines; i++) {
-			int x = random.nextInt(width);
-			int y = random.nextInt(height);
-			if(cells[x][y].isMine()) {
-				i--;
-				continue;
-			}
+	/**
+	 * Makes the next {@link #drawChanges(Screen)} redraw the whole board, for when something else was drawn over it.
+	 */
+	public void invalidate() {
+		allChanged = true;
+		changed.clear();
+	}
 
-			cells[x][y] = new Cell(true);
-		}
+	/**
+	 * Makes the next {@link #drawChanges(Screen)} redraw one cell, given as {@code y * width + x}.
+	 */
+	public void redraw(int cell) {
+		changed(cell % width, cell / width);
+	}
 
-		for(int x = 0; x < width; x++) {
-			for(int y = 0; y < height; y++) {
-				int adjacentMines = 0;
-				for(int x1 = x - 1; x1 <= x + 1; x1++) {
-					for(int y1 = y - 1; y1 <= y + 1; y1++) {
-						if(x1 < 0 || x1 >= width || y1 < 0 || y1 >= height) {
-							continue;
-						}
-
-						if(cells[x1][y1].isMine()) {
-							adjacentMines++;
-						}
-					}
-				}
+	public void draw(Screen screen) {
+		drawHeader(screen);
 
-				cells[x][y].setAdjacentMines(adjacentMines);
+		for(int y = 0; y < height; y++) {
+			for(int x = 0; x < width; x++) {
+				drawCell(screen, x, y);
 			}
 		}
 	}
 
-	@Override
-	public String toString() {
-		if(safeSquaresOpened == width * height - numMines) {
-			won = true;
+	/**
+	 * Draws only the cells that changed since the last call, onto a screen that still holds the previous frame.
+	 */
+	public void drawChanges(Screen screen) {
+		if(allChanged) {
+			screen.clear();
+			draw(screen);
+		} else {
+			drawHeader(screen);
+			for(int i = 0; i < changed.size(); i++) {
+				int cell = changed.get(i);
+				drawCell(screen, cell % width, cell / width);
+			}
 		}
 
-		StringBuilder sb = new StringBuilder();
-		sb.append("Minesweeper (").append(diffName).append(") - ").append(numMines - numFlags).append(" mines left:     \n");
-		for(int y = 0; y < height; y++) {
-			for(int x = 0; x < width; x++) {
-				boolean isSelection = this.x == x && this.y == y && !isGameOver();
+		changed.clear();
+		allChanged = false;
+	}
 
-				sb.append(cells[x][y].toString(isSelection)).append(' ');
-			}
+	private void drawHeader(Screen screen) {
+		screen.fill(0, 0, screen.getWidth(), ' ', Screen.DEFAULT, Screen.DEFAULT);
+		int col = screen.print(0, 0, title, Screen.DEFAULT, Screen.DEFAULT);
+		col = screen.print(0, col, numMines - numFlags, Screen.DEFAULT, Screen.DEFAULT);
+		screen.print(0, col, MINES_LEFT, Screen.DEFAULT, Screen.DEFAULT);
+	}
 
-			sb.append("\n");
-		}
+	private void drawCell(Screen screen, int x, int y) {
+		int state = field.isFlagged(x, y) ? FLAGGED
+				: !field.isRevealed(x, y) ? HIDDEN
+				: field.isMine(x, y) ? MINE
+				: field.getAdjacentMines(x, y);
+		drawState(screen, y + 1, x * 2, state, this.x == x && this.y == y && !isGameOver());
+	}
 
-		return sb.toString();
+	/**
+	 * Draws a cell that is {@link #HIDDEN}, {@link #FLAGGED}, a revealed {@link #MINE} or revealed with that many adjacent mines.
+	 */
+	static void drawState(Screen screen, int row, int col, int state, boolean selected) {
+		if(selected) {
+			state += STATES;
+		}
+		screen.set(row, col, GLYPHS[state], FGS[state], BGS[state]);
 	}
 
 	public void handleMovement(char move) {
+		switch(move) {
+			case 'w' -> handleMovement(Key.UP);
+			case 's' -> handleMovement(Key.DOWN);
+			case 'd' -> handleMovement(Key.RIGHT);
+			case 'a' -> handleMovement(Key.LEFT);
+		}
+	}
+
+	public void handleMovement(Key move) {
 		if(isGameOver()) return;
+		changed(x, y);
 		switch(move) {
-			case 'A', 'w' -> {
+			case UP -> {
 				if(y > 0) y--;
 			}
-			case 'B', 's' -> {
+			case DOWN -> {
 				if(y < height - 1) y++;
 			}
-			case 'C', 'd' -> {
+			case RIGHT -> {
 				if(x < width - 1) x++;
 			}
-			case 'D', 'a' -> {
+			case LEFT -> {
 				if(x > 0) x--;
 			}
 		}
+		changed(x, y);
 	}
 
-	public boolean isGameOver() {
-		return lost || won;
+	private void changed(int x, int y) {
+		if(allChanged) return;
+		if(changed.size() >= MAX_TRACKED_CHANGES) {
+			allChanged = true;
+			changed.clear();
+			return;
+		}
+		changed.add(y * width + x);
+	}
+
+	/**
+	 * @return the cells, as {@code y * width + x}, that changed since the board was last drawn,
+	 * or {@code null} if too much changed to track and the whole board needs redrawing
+	 */
+	public IntList getChanged() {
+		return allChanged ? null : changed;
 	}
 
-	private boolean shouldFloodReveal() {
-		Cell cell = cells[x][y];
-		return !cell.isRevealed() && !cell.isMine()
-				&& (cell.getAdjacentMines() <= 0 || diffName.equals("Custom"));
+	/**
+	 * @return the selected cell as {@code y * width + x}
+	 */
+	public int getCursor() {
+		return y * width + x;
+	}
+
+	/**
+	 * @return whether the mines have been placed yet
+	 */
+	public boolean isStarted() {
+		return firstRevealed;
+	}
+
+	MineField getField() {
+		return field;
+	}
+
+	/**
+	 * @return the board as it is now, to be resumed by {@link #fromSnapshot(ByteBuffer)}: its size, name, seeds, cursor and flag count,
+	 * the time played so far in milliseconds, and then the mines, revealed cells and flagged cells each packed into {@code long}s
+	 */
+	public ByteBuffer snapshot() {
+		byte[] name = diffName.getBytes(StandardCharsets.UTF_8);
+		int words = (width * height + 63) >>> 6;
+		ByteBuffer out = ByteBuffer.allocate(4 * 6 + 2 + name.length + 8 * 3 + 2 + words * 8 * 3);
+		out.putInt(width).putInt(height).putInt(numMines);
+		out.putShort((short) name.length).put(name);
+		out.putLong(seed).putLong(layoutSeed);
+		out.putInt(x).putInt(y).putInt(numFlags);
+		out.putLong(firstRevealed ? System.currentTimeMillis() - startTime : 0);
+		out.put((byte) (noGuess ? 1 : 0)).put((byte) (firstRevealed ? 1 : 0));
+
+		long[] mines = new long[words], revealed = new long[words], flagged = new long[words];
+		for(int cell = 0; cell < width * height; cell++) {
+			int x = cell % width, y = cell / width;
+			if(field.isMine(x, y)) mines[cell >>> 6] |= 1L << cell;
+			if(field.isRevealed(x, y)) revealed[cell >>> 6] |= 1L << cell;
+			if(field.isFlagged(x, y)) flagged[cell >>> 6] |= 1L << cell;
+		}
+		out.asLongBuffer().put(mines).put(revealed).put(flagged);
+		return out.position(out.capacity()).flip();
+	}
+
+	/**
+	 * @param in a snapshot from {@link #snapshot()}, read from its position on
+	 * @throws IllegalArgumentException if the snapshot describes a board that can't be, or is longer than {@code in}
+	 */
+	public static Board fromSnapshot(ByteBuffer in) {
+		int width = check(in.getInt(), 1, MAX_SNAPSHOT_SIDE, "width");
+		int height = check(in.getInt(), 1, MAX_SNAPSHOT_SIDE, "height");
+		int numMines = check(in.getInt(), 0, width * height - 1, "mine count");
+		byte[] name = new byte[check(in.getShort() & 0xFFFF, 0, in.remaining(), "name length")];
+		in.get(name);
+		int words = (width * height + 63) >>> 6;
+		// the rest of the header, then the three planes
+		check(in.remaining(), 8 * 2 + 4 * 3 + 8 + 2 + words * 8 * 3, Integer.MAX_VALUE, "snapshot length");
+
+		Board board = new Board(width, height, numMines, new String(name, StandardCharsets.UTF_8), in.getLong());
+		board.layoutSeed = in.getLong();
+		board.x = check(in.getInt(), 0, width - 1, "x");
+		board.y = check(in.getInt(), 0, height - 1, "y");
+		board.numFlags = check(in.getInt(), 0, width * height, "flag count");
+		board.startTime = System.currentTimeMillis() - in.getLong();
+		board.noGuess = in.get() != 0;
+		board.firstRevealed = in.get() != 0;
+
+		long[] mines = new long[words], revealed = new long[words], flagged = new long[words];
+		in.asLongBuffer().get(mines).get(revealed).get(flagged);
+		in.position(in.position() + words * 8 * 3);
+
+		MineField field = board.field;
+		for(int cell = 0; cell < width * height; cell++) {
+			if((mines[cell >>> 6] & 1L << cell) != 0) {
+				field.setMine(cell % width, cell / width);
+			}
+		}
+		field.computeAdjacency();
+		for(int cell = 0; cell < width * height; cell++) {
+			int x = cell % width, y = cell / width;
+			if((revealed[cell >>> 6] & 1L << cell) != 0) field.reveal(x, y);
+			if((flagged[cell >>> 6] & 1L << cell) != 0) field.toggleFlag(x, y);
+		}
+		return board;
+	}
+
+	private static int check(int value, int min, int max, String what) {
+		if(value < min || value > max) {
+			throw new IllegalArgumentException("Bad " + what + " in snapshot: " + value);
+		}
+		return value;
+	}
+
+	public boolean isGameOver() {
+		return lost || won;
 	}
 
 	private void start() {
 		startTime = System.currentTimeMillis();
 		firstRevealed = true;
-		do {
-			// guarantees that the first time user reveals it will flood unless custom difficulty
-			regenerate();
-		} while(!shouldFloodReveal());
+		field.clear();
+
+		if(layoutSource != null) {
+			layoutSeed = layoutSource.getAsLong();
+		} else {
+			layoutSeed = random.nextLong();
+			if(noGuess) {
+				// timed, so what it finds can differ between runs and has to be recorded
+				long solvable = NoGuessGenerator.findSeed(width, height, numMines, x, y, random.split(), NO_GUESS_BUDGET_NANOS);
+				if(solvable != Long.MIN_VALUE) {
+					layoutSeed = solvable;
+				}
+			}
+		}
+		if(layoutListener != null) {
+			layoutListener.accept(layoutSeed);
+		}
+
+		// keeps the first cell revealed and its neighbours clear, so it floods unless the board is too crowded
+		MinePlacer.place(field, numMines, x, y, new SplittableRandom(layoutSeed));
+		allChanged = true;
 		floodReveal(x, y);
 	}
 
-	public void reveal() {
+	/**
+	 * @return the changed cells, as returned by {@link #getChanged()}
+	 */
+	public IntList reveal() {
 		reveal(x, y);
+		checkWon();
+		return getChanged();
+	}
+
+	private void checkWon() {
+		if(!lost && field.allSafeRevealed()) {
+			won = true;
+		}
+		if(isGameOver()) {
+			changed(x, y);
+		}
 	}
 
 	private void reveal(int x, int y) {
-		Cell cell = cells[x][y];
-		if(cell.isFlagged()) return;
+		if(field.isFlagged(x, y)) return;
 
 		if(!firstRevealed) {
 			start();
 			return;
 		}
 
-		if(cell.isRevealed()) return;
+		if(field.isRevealed(x, y)) return;
 
-		if(cell.isMine()) {
-			cell.reveal();
+		if(field.isMine(x, y)) {
+			field.reveal(x, y);
+			changed(x, y);
 			lost = true;
 			return;
 		}
 
-		if(cell.getAdjacentMines() <= 0) {
+		if(field.getAdjacentMines(x, y) <= 0) {
 			floodReveal(x, y);
 		} else {
-			cell.reveal();
-			safeSquaresOpened++;
+			field.reveal(x, y);
+			changed(x, y);
 		}
 	}
 
+	/**
+	 * Reveals the cell and, breadth first, every cell connected to it through cells with no adjacent mines.
+	 * Cells are revealed as they are queued, so each one is queued at most once.
+	 */
 	private void floodReveal(int x, int y) {
-		if(x < 0 || x >= width || y < 0 || y >= height) {
-			return;
-		}
-
-		Cell cell = cells[x][y];
-
-		if(cell.isRevealed() || cell.isFlagged()) {
-			return;
-		}
-
-		cell.reveal();
-		safeSquaresOpened++;
-
-		if(cell.getAdjacentMines() > 0) {
+		if(field.isRevealed(x, y) || field.isFlagged(x, y)) {
 			return;
 		}
 
-		for(int x1 = x - 1; x1 <= x + 1; x1++) {
-			for(int y1 = y - 1; y1 <= y + 1; y1++) {
-				floodReveal(x1, y1);
+		floodQueue.clear();
+		field.reveal(x, y);
+		changed(x, y);
+		floodQueue.add(y * width + x);
+
+		while(!floodQueue.isEmpty()) {
+			int cell = floodQueue.poll();
+			int cx = cell % width, cy = cell / width;
+			if(field.getAdjacentMines(cx, cy) > 0) continue;
+
+			int minX = Math.max(cx - 1, 0), maxX = Math.min(cx + 1, width - 1);
+			int minY = Math.max(cy - 1, 0), maxY = Math.min(cy + 1, height - 1);
+			for(int y1 = minY; y1 <= maxY; y1++) {
+				for(int x1 = minX; x1 <= maxX; x1++) {
+					if(field.isRevealed(x1, y1) || field.isFlagged(x1, y1)) continue;
+
+					field.reveal(x1, y1);
+					changed(x1, y1);
+					floodQueue.add(y1 * width + x1);
+				}
 			}
 		}
 	}
 
-	public void chord() {
-		Cell cell = cells[x][y];
-		if(!cell.isRevealed()) return;
+	/**
+	 * @return the changed cells, as returned by {@link #getChanged()}
+	 */
+	public IntList chord() {
+		if(!field.isRevealed(x, y)) return getChanged();
 
 		int adjacentFlags = 0;
 		for(int x1 = x - 1; x1 <= x + 1; x1++) {
@@ -209,13 +492,13 @@ public class Board {
 					continue;
 				}
 
-				if(cells[x1][y1].isFlagged()) {
+				if(field.isFlagged(x1, y1)) {
 					adjacentFlags++;
 				}
 			}
 		}
 
-		if(adjacentFlags != cell.getAdjacentMines()) return;
+		if(adjacentFlags != field.getAdjacentMines(x, y)) return getChanged();
 
 		for(int x1 = x - 1; x1 <= x + 1; x1++) {
 			for(int y1 = y - 1; y1 <= y + 1; y1++) {
@@ -223,11 +506,13 @@ public class Board {
 					continue;
 				}
 
-				if(!cells[x1][y1].isFlagged()) {
+				if(!field.isFlagged(x1, y1)) {
 					reveal(x1, y1);
 				}
 			}
 		}
+		checkWon();
+		return getChanged();
 	}
 
 	public void revealAll() {
@@ -235,22 +520,16 @@ public class Board {
 			throw new IllegalStateException("Game is not over yet");
 		}
 
-		for(int x = 0; x < width; x++) {
-			for(int y = 0; y < height; y++) {
-				if(cells[x][y].isFlagged() && !cells[x][y].isMine()) {
-					cells[x][y].flag();
-				}
-				cells[x][y].reveal();
-			}
-		}
+		field.revealAll();
+		allChanged = true;
 	}
 
 	public void flag() {
-		Cell cell = cells[x][y];
-		if(cell.isRevealed()) return;
+		if(field.isRevealed(x, y)) return;
 
-		cell.flag();
-		if(cell.isFlagged()) {
+		field.toggleFlag(x, y);
+		changed(x, y);
+		if(field.isFlagged(x, y)) {
 			numFlags++;
 		} else {
 			numFlags--;
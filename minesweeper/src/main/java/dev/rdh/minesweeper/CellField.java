@@ -0,0 +1,130 @@
+package dev.rdh.minesweeper;
+
+import lombok.Getter;
+
+@Getter
+public class CellField implements MineField {
+	private final int width, height;
+
+	private final Cell[][] cells;
+
+	public CellField(int width, int height) {
+		this.width = width;
+		this.height = height;
+		this.cells = new Cell[width][height];
+		clear();
+	}
+
+	@Override
+	public boolean isMine(int x, int y) {
+		return cells[x][y].isMine();
+	}
+
+	@Override
+	public boolean isRevealed(int x, int y) {
+		return cells[x][y].isRevealed();
+	}
+
+	@Override
+	public boolean isFlagged(int x, int y) {
+		return cells[x][y].isFlagged();
+	}
+
+	@Override
+	public int getAdjacentMines(int x, int y) {
+		return cells[x][y].getAdjacentMines();
+	}
+
+	@Override
+	public void setMine(int x, int y) {
+		boolean wasFlagged = cells[x][y].isFlagged();
+		cells[x][y] = new Cell(true);
+		if(wasFlagged) {
+			cells[x][y].flag();
+		}
+	}
+
+	@Override
+	public void addMine(int x, int y) {
+		if(isMine(x, y)) return;
+		int adjacentMines = cells[x][y].getAdjacentMines();
+		setMine(x, y);
+		cells[x][y].setAdjacentMines(adjacentMines);
+
+		for(int x1 = Math.max(x - 1, 0); x1 <= Math.min(x + 1, width - 1); x1++) {
+			for(int y1 = Math.max(y - 1, 0); y1 <= Math.min(y + 1, height - 1); y1++) {
+				if(x1 == x && y1 == y) continue;
+				cells[x1][y1].setAdjacentMines(cells[x1][y1].getAdjacentMines() + 1);
+			}
+		}
+	}
+
+	@Override
+	public void computeAdjacency() {
+		for(int x = 0; x < width; x++) {
+			for(int y = 0; y < height; y++) {
+				int adjacentMines = 0;
+				for(int x1 = x - 1; x1 <= x + 1; x1++) {
+					for(int y1 = y - 1; y1 <= y + 1; y1++) {
+						if(x1 < 0 || x1 >= width || y1 < 0 || y1 >= height) {
+							continue;
+						}
+
+						if(cells[x1][y1].isMine()) {
+							adjacentMines++;
+						}
+					}
+				}
+
+				cells[x][y].setAdjacentMines(adjacentMines);
+			}
+		}
+	}
+
+	@Override
+	public void reveal(int x, int y) {
+		cells[x][y].reveal();
+	}
+
+	@Override
+	public void toggleFlag(int x, int y) {
+		cells[x][y].flag();
+	}
+
+	@Override
+	public void clear() {
+		for(int x = 0; x < width; x++) {
+			for(int y = 0; y < height; y++) {
+				boolean wasFlagged = cells[x][y] != null && cells[x][y].isFlagged();
+				cells[x][y] = new Cell(false);
+				if(wasFlagged) {
+					cells[x][y].flag();
+				}
+			}
+		}
+	}
+
+	@Override
+	public void revealAll() {
+		for(int x = 0; x < width; x++) {
+			for(int y = 0; y < height; y++) {
+				if(cells[x][y].isFlagged() && !cells[x][y].isMine()) {
+					cells[x][y].flag();
+				}
+				cells[x][y].reveal();
+			}
+		}
+	}
+
+	@Override
+	public boolean allSafeRevealed() {
+		for(int x = 0; x < width; x++) {
+			for(int y = 0; y < height; y++) {
+				if(!cells[x][y].isMine() && !cells[x][y].isRevealed()) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,114 @@
+package dev.rdh.minesweeper;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+/**
+ * A square of an {@link EndlessWorld}, {@value #SIZE} cells a side, stored as bitsets indexed by {@code y * SIZE + x}.
+ * <p>
+ * The mines come from a seed made from the world's seed and the chunk's position, so a chunk can always be made again
+ * and only what the player changed needs saving.
+ */
+final class Chunk {
+	static final int BITS = 5;
+	static final int SIZE = 1 << BITS;
+	static final int MASK = SIZE - 1;
+
+	private static final int WORDS = SIZE * SIZE / 64;
+
+	final int cx, cy;
+
+	private final long[] mines = new long[WORDS];
+	private final long[] revealed = new long[WORDS];
+	private final long[] flagged = new long[WORDS];
+
+	/**
+	 * whether anything was revealed or flagged since the chunk was made or last saved
+	 */
+	boolean modified;
+
+	/**
+	 * @param density the chance of each cell being a mine, except around the world's origin, which is always clear
+	 */
+	Chunk(long worldSeed, int cx, int cy, double density) {
+		this.cx = cx;
+		this.cy = cy;
+
+		SplittableRandom random = new SplittableRandom(seed(worldSeed, cx, cy));
+		for(int i = 0; i < SIZE * SIZE; i++) {
+			if(random.nextDouble() >= density) continue;
+			int x = (cx << BITS) + (i & MASK), y = (cy << BITS) + (i >>> BITS);
+			if(Math.abs(x) <= 1 && Math.abs(y) <= 1) continue;
+			mines[i >>> 6] |= 1L << i;
+		}
+	}
+
+	/**
+	 * mixes the chunk's position into the world's seed the way {@link SplittableRandom} mixes its seeds
+	 */
+	static long seed(long worldSeed, int cx, int cy) {
+		long z = worldSeed + 0x9E3779B97F4A7C15L * (((long) cx << 32) ^ (cy & 0xFFFFFFFFL));
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	static long key(int cx, int cy) {
+		return (long) cx << 32 | (cy & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * @param x the cell's column within the chunk
+	 * @param y the cell's row within the chunk
+	 */
+	boolean isMine(int x, int y) {
+		return get(mines, x, y);
+	}
+
+	boolean isRevealed(int x, int y) {
+		return get(revealed, x, y);
+	}
+
+	boolean isFlagged(int x, int y) {
+		return get(flagged, x, y);
+	}
+
+	/**
+	 * @return whether the cell was hidden and not flagged, and so got revealed
+	 */
+	boolean reveal(int x, int y) {
+		if(get(revealed, x, y) || get(flagged, x, y)) return false;
+		int i = y << BITS | x;
+		revealed[i >>> 6] |= 1L << i;
+		modified = true;
+		return true;
+	}
+
+	void toggleFlag(int x, int y) {
+		if(get(revealed, x, y)) return;
+		int i = y << BITS | x;
+		flagged[i >>> 6] ^= 1L << i;
+		modified = true;
+	}
+
+	private static boolean get(long[] bits, int x, int y) {
+		int i = y << BITS | x;
+		return (bits[i >>> 6] & 1L << i) != 0;
+	}
+
+	void write(DataOutput out) throws IOException {
+		for(int i = 0; i < WORDS; i++) {
+			out.writeLong(revealed[i]);
+			out.writeLong(flagged[i]);
+		}
+	}
+
+	void read(DataInput in) throws IOException {
+		for(int i = 0; i < WORDS; i++) {
+			revealed[i] = in.readLong();
+			flagged[i] = in.readLong();
+		}
+	}
+}
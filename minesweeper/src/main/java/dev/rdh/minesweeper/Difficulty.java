@@ -7,7 +7,11 @@ public enum Difficulty {
 	BEGINNER(9, 9, 10),
 	INTERMEDIATE(16, 16, 40),
 	EXPERT(30, 16, 99),
-	CUSTOM(-1, -1, -1);
+	CUSTOM(-1, -1, -1),
+	/**
+	 * no edges, see {@link EndlessWorld}
+	 */
+	ENDLESS(-1, -1, -1);
 
 	private final int width, height, numMines;
 
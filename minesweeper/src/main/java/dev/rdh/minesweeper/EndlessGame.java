@@ -0,0 +1,172 @@
+package dev.rdh.minesweeper;
+
+import dev.rdh.games.Console;
+import dev.rdh.games.Key;
+import dev.rdh.games.KeyEvent;
+import dev.rdh.games.Screen;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+
+/**
+ * Minesweeper on an {@link EndlessWorld}, seen through a window that scrolls to keep the cursor away from its edges.
+ * The game goes on until a mine is revealed, and the score is how many cells were revealed.
+ */
+public class EndlessGame {
+	private static final int VIEW_WIDTH = Console.DEFAULT_TERMINAL_WIDTH / 2;
+	private static final int VIEW_HEIGHT = Console.DEFAULT_TERMINAL_HEIGHT - 3;
+
+	/**
+	 * how close the cursor can get to the edge of the view before it scrolls
+	 */
+	private static final int MARGIN = 4;
+
+	/**
+	 * chunks kept in memory, about 100KB of them
+	 */
+	private static final int CACHED_CHUNKS = 256;
+
+	private static final char[] TITLE = "Minesweeper (Endless) - ".toCharArray();
+	private static final char[] REVEALED = " revealed at ".toCharArray();
+
+	private final Console console;
+	private final Config config;
+	private final Screen screen;
+
+	private final Path directory;
+	private final EndlessWorld world;
+
+	private int x = 0, y = 0;
+
+	/**
+	 * the world position of the view's top left cell
+	 */
+	private int cameraX = -VIEW_WIDTH / 2, cameraY = -VIEW_HEIGHT / 2;
+
+	private boolean lost = false;
+
+	public EndlessGame(Console console) {
+		this.console = console;
+		this.config = Config.load();
+		this.screen = console.screen(Console.DEFAULT_TERMINAL_WIDTH, VIEW_HEIGHT + 3);
+		try {
+			this.directory = Files.createTempDirectory("minesweeper-endless-");
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		this.world = new EndlessWorld(ThreadLocalRandom.current().nextLong(), EndlessWorld.DEFAULT_DENSITY, directory, CACHED_CHUNKS);
+	}
+
+	public void run() {
+		try {
+			play();
+		} finally {
+			delete(directory);
+		}
+	}
+
+	private void play() {
+		console.clearScreen();
+		// the origin is always clear, so start with it open
+		world.reveal(0, 0);
+
+		while(true) {
+			draw();
+			if(lost) {
+				console.readChar();
+				return;
+			}
+
+			KeyEvent key = console.readKey();
+			char c = key.toChar();
+			if(c == 'q' || key.getKey() == Key.EOF) {
+				return;
+			} else if(c == config.flag) {
+				if(!world.isRevealed(x, y)) {
+					world.toggleFlag(x, y);
+				}
+			} else if(c == config.reveal) {
+				lost = world.reveal(x, y);
+			} else if(c == config.chord) {
+				lost = world.chord(x, y);
+			} else if("wasd".indexOf(c) >= 0 && config.useWASD) {
+				move(switch(c) {
+					case 'w' -> Key.UP;
+					case 's' -> Key.DOWN;
+					case 'a' -> Key.LEFT;
+					default -> Key.RIGHT;
+				});
+			} else if(key.getKey().isArrow()) {
+				move(key.getKey());
+			}
+		}
+	}
+
+	private void move(Key direction) {
+		switch(direction) {
+			case UP -> y--;
+			case DOWN -> y++;
+			case LEFT -> x--;
+			case RIGHT -> x++;
+		}
+		cameraX = Math.max(Math.min(cameraX, x - MARGIN), x + MARGIN + 1 - VIEW_WIDTH);
+		cameraY = Math.max(Math.min(cameraY, y - MARGIN), y + MARGIN + 1 - VIEW_HEIGHT);
+	}
+
+	/**
+	 * Draws the view over the world, which the screen then narrows down to the cells that changed.
+	 */
+	private void draw() {
+		screen.fill(0, 0, screen.getWidth(), ' ', Screen.DEFAULT, Screen.DEFAULT);
+		int col = screen.print(0, 0, TITLE, Screen.DEFAULT, Screen.DEFAULT);
+		col = screen.print(0, col, world.getRevealed(), Screen.DEFAULT, Screen.DEFAULT);
+		col = screen.print(0, col, REVEALED, Screen.DEFAULT, Screen.DEFAULT);
+		screen.set(0, col++, '(');
+		col = screen.print(0, col, x, Screen.DEFAULT, Screen.DEFAULT);
+		screen.set(0, col++, ',');
+		screen.set(0, col++, ' ');
+		col = screen.print(0, col, y, Screen.DEFAULT, Screen.DEFAULT);
+		screen.set(0, col, ')');
+
+		for(int row = 0; row < VIEW_HEIGHT; row++) {
+			int wy = cameraY + row;
+			for(int column = 0; column < VIEW_WIDTH; column++) {
+				int wx = cameraX + column;
+				Board.drawState(screen, row + 1, column * 2, state(wx, wy), wx == x && wy == y && !lost);
+			}
+		}
+
+		if(lost) {
+			screen.print(VIEW_HEIGHT + 1, 0, "You lost! You revealed " + world.getRevealed() + " cells.");
+		}
+		screen.render();
+	}
+
+	/**
+	 * @return how the cell looks, for {@link Board#drawState}, with every mine showing once the game is lost
+	 */
+	private int state(int x, int y) {
+		if(world.isFlagged(x, y)) return Board.FLAGGED;
+		if(world.isMine(x, y)) {
+			return lost ? Board.MINE : Board.HIDDEN;
+		}
+		return world.isRevealed(x, y) ? world.getAdjacentMines(x, y) : Board.HIDDEN;
+	}
+
+	private static void delete(Path directory) {
+		try(Stream<Path> files = Files.walk(directory)) {
+			files.sorted(Comparator.reverseOrder()).forEach(path -> {
+				try {
+					Files.delete(path);
+				} catch (IOException ignored) {
+				}
+			});
+		} catch (IOException ignored) {
+		}
+	}
+}
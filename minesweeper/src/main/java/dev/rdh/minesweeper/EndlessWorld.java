@@ -0,0 +1,233 @@
+package dev.rdh.minesweeper;
+
+import dev.rdh.games.util.IntQueue;
+
+import lombok.Getter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A minefield with no edges, made of {@link Chunk}s generated the first time they are touched.
+ * <p>
+ * At most {@code capacity} chunks are kept in memory, the least recently used going first;
+ * those the player changed are written to {@code directory} as they go and read back when they're needed again.
+ * Chunks nobody changed are just generated again, so memory and disk grow with how much has been played, not how far the world goes.
+ */
+public class EndlessWorld {
+	/**
+	 * a little less than intermediate
+	 */
+	public static final double DEFAULT_DENSITY = 0.15;
+
+	@Getter
+	private final long seed;
+	private final double density;
+
+	private final Path directory;
+	private final int capacity;
+
+	private final LinkedHashMap<Long, Chunk> chunks;
+
+	/**
+	 * the chunk last looked at, since most lookups are for the same one as the last
+	 */
+	private Chunk last;
+
+	@Getter
+	private int chunksSaved, chunksLoaded;
+
+	/**
+	 * safe cells revealed so far
+	 */
+	@Getter
+	private long revealed;
+
+	private final IntQueue floodX = new IntQueue(), floodY = new IntQueue();
+
+	public EndlessWorld(long seed, double density, Path directory, int capacity) {
+		this.seed = seed;
+		this.density = density;
+		this.directory = directory;
+		this.capacity = capacity;
+		this.chunks = new LinkedHashMap<>(capacity * 2, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, Chunk> eldest) {
+				if(size() <= EndlessWorld.this.capacity) return false;
+				evict(eldest.getValue());
+				return true;
+			}
+		};
+	}
+
+	public int getCachedChunks() {
+		return chunks.size();
+	}
+
+	private Chunk chunk(int x, int y) {
+		int cx = x >> Chunk.BITS, cy = y >> Chunk.BITS;
+		if(last != null && last.cx == cx && last.cy == cy) {
+			return last;
+		}
+
+		long key = Chunk.key(cx, cy);
+		Chunk chunk = chunks.get(key);
+		if(chunk == null) {
+			chunk = new Chunk(seed, cx, cy, density);
+			load(chunk);
+			chunks.put(key, chunk);
+		}
+		return last = chunk;
+	}
+
+	private Path file(Chunk chunk) {
+		return directory.resolve(chunk.cx + "." + chunk.cy + ".chunk");
+	}
+
+	private void load(Chunk chunk) {
+		try(DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file(chunk))))) {
+			chunk.read(in);
+			chunksLoaded++;
+		} catch (NoSuchFileException e) {
+			// never changed, so generating it was enough
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void evict(Chunk chunk) {
+		if(last == chunk) {
+			last = null;
+		}
+		if(chunk.modified) {
+			save(chunk);
+		}
+	}
+
+	private void save(Chunk chunk) {
+		try {
+			Files.createDirectories(directory);
+			try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file(chunk))))) {
+				chunk.write(out);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		chunk.modified = false;
+		chunksSaved++;
+	}
+
+	/**
+	 * Writes every changed chunk still in memory to disk.
+	 */
+	public void flush() {
+		for(Chunk chunk : chunks.values()) {
+			if(chunk.modified) {
+				save(chunk);
+			}
+		}
+	}
+
+	public boolean isMine(int x, int y) {
+		return chunk(x, y).isMine(x & Chunk.MASK, y & Chunk.MASK);
+	}
+
+	public boolean isRevealed(int x, int y) {
+		return chunk(x, y).isRevealed(x & Chunk.MASK, y & Chunk.MASK);
+	}
+
+	public boolean isFlagged(int x, int y) {
+		return chunk(x, y).isFlagged(x & Chunk.MASK, y & Chunk.MASK);
+	}
+
+	public int getAdjacentMines(int x, int y) {
+		int count = 0;
+		for(int y1 = y - 1; y1 <= y + 1; y1++) {
+			for(int x1 = x - 1; x1 <= x + 1; x1++) {
+				if((x1 != x || y1 != y) && isMine(x1, y1)) {
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+
+	public void toggleFlag(int x, int y) {
+		chunk(x, y).toggleFlag(x & Chunk.MASK, y & Chunk.MASK);
+	}
+
+	/**
+	 * Reveals the cell, flooding out from it if it has no adjacent mines.
+	 *
+	 * @return whether it was a mine
+	 */
+	public boolean reveal(int x, int y) {
+		if(isRevealed(x, y) || isFlagged(x, y)) return false;
+		if(isMine(x, y)) {
+			chunk(x, y).reveal(x & Chunk.MASK, y & Chunk.MASK);
+			return true;
+		}
+
+		floodX.clear();
+		floodY.clear();
+		open(x, y);
+		while(!floodX.isEmpty()) {
+			int cx = floodX.poll(), cy = floodY.poll();
+			if(getAdjacentMines(cx, cy) > 0) continue;
+
+			for(int y1 = cy - 1; y1 <= cy + 1; y1++) {
+				for(int x1 = cx - 1; x1 <= cx + 1; x1++) {
+					open(x1, y1);
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * reveals a safe cell and queues it to flood from, if it wasn't already revealed or flagged
+	 */
+	private void open(int x, int y) {
+		if(chunk(x, y).reveal(x & Chunk.MASK, y & Chunk.MASK)) {
+			revealed++;
+			floodX.add(x);
+			floodY.add(y);
+		}
+	}
+
+	/**
+	 * Reveals the cells around a revealed number whose mines are all flagged.
+	 *
+	 * @return whether a mine was revealed, from a wrong flag
+	 */
+	public boolean chord(int x, int y) {
+		if(!isRevealed(x, y) || isMine(x, y)) return false;
+
+		int flags = 0;
+		for(int y1 = y - 1; y1 <= y + 1; y1++) {
+			for(int x1 = x - 1; x1 <= x + 1; x1++) {
+				if(isFlagged(x1, y1)) {
+					flags++;
+				}
+			}
+		}
+		if(flags != getAdjacentMines(x, y)) return false;
+
+		boolean hitMine = false;
+		for(int y1 = y - 1; y1 <= y + 1; y1++) {
+			for(int x1 = x - 1; x1 <= x + 1; x1++) {
+				hitMine |= reveal(x1, y1);
+			}
+		}
+		return hitMine;
+	}
+}
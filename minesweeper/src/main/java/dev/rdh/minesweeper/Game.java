@@ -1,46 +1,181 @@
 package dev.rdh.minesweeper;
 
 import dev.rdh.games.Console;
+import dev.rdh.games.Key;
+import dev.rdh.games.KeyEvent;
+import dev.rdh.games.Replay;
+import dev.rdh.games.ReplayWriter;
+import dev.rdh.games.SaveFile;
+import dev.rdh.games.Screen;
+import dev.rdh.games.util.IntList;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class Game {
+	private static final int BLACK = Screen.palette(30);
+	private static final int GREEN = Screen.palette(32);
+	private static final int YELLOW = Screen.palette(33);
+	private static final int RED = Screen.palette(91);
+	private static final int WHITE = Screen.palette(37);
+
 	private final Console console;
 
 	private final Board board;
 	private final Config config;
+	private final Screen screen;
+	private final ProbabilityEngine hints;
 
 	private boolean running = true;
+	private boolean showHints = false;
+
+	/**
+	 * the cell last highlighted as safest, which the board has to draw over once the highlight moves
+	 */
+	private int highlighted = -1;
+
+	/**
+	 * records this game if replays are being recorded, see {@link ReplayWriter#start}
+	 */
+	private ReplayWriter recorder;
+
+	private static final SaveFile SAVE = new SaveFile("minesweeper", 0x4D535750, 1); // MSWP
+
+	/**
+	 * whether quitting saves the game to be resumed, which only games played from the menu on a console that
+	 * {@link Console#canSave() can save} do
+	 */
+	private boolean saving = false;
 
 	public Game(Console console, Difficulty difficulty) {
+		this(console, difficulty, Config.load(), ThreadLocalRandom.current().nextLong());
+		this.saving = console.canSave();
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try(DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeUTF(difficulty.name());
+			config.write(out);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		this.recorder = ReplayWriter.start(console, Minesweeper.REPLAY_NAME, board.getSeed(), bytes.toByteArray());
+		if(recorder != null) {
+			board.setLayoutListener(recorder::value);
+		}
+	}
+
+	/**
+	 * @param seed decides where the mines go, see {@link Board#Board(int, int, int, String, long)}
+	 */
+	public Game(Console console, Difficulty difficulty, Config config, long seed) {
+		this(console, config, newBoard(difficulty, config, seed));
+	}
+
+	private Game(Console console, Config config, Board board) {
 		this.console = console;
+		this.config = config;
+		this.board = board;
+		this.hints = new ProbabilityEngine(board);
+		this.screen = console.screen(Math.max(board.getWidth() * 2, Console.DEFAULT_TERMINAL_WIDTH), board.getHeight() + 4);
+	}
 
+	private static Board newBoard(Difficulty difficulty, Config config, long seed) {
 		int width = difficulty.getWidth();
 		int height = difficulty.getHeight();
 		int numMines = difficulty.getNumMines();
-		this.config = Config.load();
 
+		if(difficulty == Difficulty.ENDLESS) {
+			throw new IllegalArgumentException("Endless games are played with EndlessGame");
+		}
 		if(difficulty == Difficulty.CUSTOM) {
 			width = config.width;
 			height = config.height;
 			numMines = config.mines;
 		}
 
-		this.board = new Board(width, height, numMines, difficulty.toString());
+		Board board = new Board(width, height, numMines, difficulty + (config.noGuess ? ", no guessing" : ""), seed);
+		board.setNoGuess(config.noGuess);
+		return board;
+	}
+
+	public static boolean hasSave(Console console) {
+		return console.canSave() && SAVE.exists();
+	}
+
+	/**
+	 * @return the game saved when the player last quit one, or {@code null} if there isn't one that can be read
+	 */
+	public static Game resume(Console console) {
+		if(!console.canSave()) return null;
+		Board board;
+		try {
+			ByteBuffer saved = SAVE.read();
+			if(saved == null) return null;
+			board = Board.fromSnapshot(saved);
+		} catch (IOException | RuntimeException e) {
+			// unreadable, or not a board that could have been saved, so it's no use keeping
+			SAVE.delete();
+			return null;
+		}
+
+		Game game = new Game(console, Config.load(), board);
+		game.saving = true;
+		return game;
+	}
+
+	/**
+	 * @see Minesweeper#replay(Console, Replay)
+	 */
+	static String replay(Console console, Replay replay) throws IOException {
+		DataInputStream in = replay.config();
+		Difficulty difficulty = Difficulty.valueOf(in.readUTF());
+		Game game = new Game(console, difficulty, Config.read(in), replay.getSeed());
+		game.board.setLayoutSource(replay::nextValue);
+		game.run();
+
+		Board board = game.board;
+		String result = board.isWon() ? "won" : board.isLost() ? "lost" : "quit";
+		return result + " " + board.getWidth() + "x" + board.getHeight()
+				+ ", layout " + Long.toHexString(board.getLayoutSeed()) + ", " + replay.getKeyCount() + " keys";
 	}
 
 	public void run() {
+		console.setRecorder(recorder);
+		try {
+			play();
+		} finally {
+			console.setRecorder(null);
+			if(recorder != null) {
+				recorder.close();
+			}
+		}
+	}
+
+	private void play() {
 		console.clearScreen();
 		while(running) {
-			console.moveCursor(0, 0);
-			console.print(board);
+			draw();
 
 			if(board.isGameOver()) {
+				if(saving) {
+					SAVE.delete();
+				}
 				showGameOverScreen();
 				return;
 			}
 
-			char c = console.readChar();
-			if(c == 'q') {
+			KeyEvent key = console.readKey();
+			char c = key.toChar();
+			if(c == 'q' || key.getKey() == Key.EOF) {
 				running = false;
+				if(saving) {
+					save();
+				}
 			} else if(c == config.reset) {
 				board.regenerate();
 			} else if(c == config.flag) {
@@ -51,27 +186,98 @@ public class Game {
 				board.handleMovement(c);
 			} else if(c == config.chord) {
 				board.chord();
-			} else if(c == '\033') {
-				if(console.readChar() == '[') {
-					board.handleMovement(console.readChar());
+			} else if(c == config.hint) {
+				showHints = !showHints;
+				if(showHints) {
+					hints.invalidate();
+				} else {
+					board.invalidate();
 				}
+			} else if(key.getKey().isArrow()) {
+				board.handleMovement(key.getKey());
 			}
 		}
 	}
 
+	/**
+	 * Saves the game to be resumed, unless there is nothing to resume yet.
+	 */
+	private void save() {
+		if(board.isStarted()) {
+			SAVE.write(board.snapshot());
+		} else {
+			SAVE.delete();
+		}
+	}
+
 	private void showGameOverScreen() {
 		board.revealAll();
-		console.moveCursor(0, 0);
-		console.print(board);
-		console.println("Game over!");
+		screen.clear();
+		board.draw(screen);
+		int row = board.getHeight() + 1;
+		screen.print(row++, 0, "Game over!");
 		if(board.isWon()) {
-			console.println("You win!");
+			screen.print(row++, 0, "You win!");
 		} else if(board.isLost()) {
-			console.println("You lost!");
+			screen.print(row++, 0, "You lost!");
 		} else {
 			throw new IllegalStateException("Game is neither lost or won, this should never happen!");
 		}
-		console.println("Time: " + ((System.currentTimeMillis() - board.getStartTime()) / 1000) + "s");
+		screen.print(row, 0, "Time: " + ((System.currentTimeMillis() - board.getStartTime()) / 1000) + "s");
+		screen.render();
 		console.readChar();
 	}
+
+	private void draw() {
+		if(showHints) {
+			IntList changes = board.getChanged();
+			hints.update(changes);
+			if(highlighted >= 0) {
+				board.redraw(highlighted);
+			}
+		}
+
+		board.drawChanges(screen);
+		if(showHints) {
+			drawHints();
+		}
+		screen.render();
+	}
+
+	/**
+	 * Draws each frontier cell's chance of being a mine in tenths over the board, highlights the safest cell and says how safe it is.
+	 */
+	private void drawHints() {
+		MineField field = board.getField();
+		int width = board.getWidth();
+		int cursor = board.getCursor();
+
+		for(int cell = hints.nextFrontierCell(0); cell >= 0; cell = hints.nextFrontierCell(cell + 1)) {
+			int x = cell % width, y = cell / width;
+			if(field.isFlagged(x, y)) continue;
+
+			double p = hints.getProbability(x, y);
+			char glyph = p == 0 ? '0' : p == 1 ? '*' : (char) ('0' + Math.max(1, Math.min(9, (int) Math.round(p * 10))));
+			int fg = p < 0.2 ? GREEN : p < 0.5 ? YELLOW : RED;
+			screen.set(y + 1, x * 2, glyph, cell == cursor ? BLACK : fg, cell == cursor ? WHITE : Screen.DEFAULT);
+		}
+
+		int row = board.getHeight() + 1;
+		screen.fill(row, 0, screen.getWidth(), ' ', Screen.DEFAULT, Screen.DEFAULT);
+
+		highlighted = hints.getSafestCell();
+		if(!board.isStarted()) {
+			screen.print(row, 0, "Hint: the first cell revealed is always safe");
+		} else if(highlighted < 0) {
+			screen.print(row, 0, "Hint: no hidden cells left");
+		} else {
+			int x = highlighted % width, y = highlighted / width;
+			double p = hints.getProbability(x, y);
+			if(highlighted != cursor) {
+				screen.set(y + 1, x * 2, hints.isFrontier(x, y) ? (char) ('0' + Math.min(9, (int) Math.round(p * 10))) : '.', BLACK, GREEN);
+			}
+			screen.print(row, 0, String.format("Hint: (%d, %d) has a %.1f%% chance of being a mine%s",
+					x + 1, y + 1, p * 100, hints.isApproximate() ? " (estimated)" : ""));
+		}
+	}
 }
@@ -0,0 +1,63 @@
+package dev.rdh.minesweeper;
+
+/**
+ * The per-cell state of a {@link Board}: where the mines are and what has been revealed or flagged.
+ */
+public interface MineField {
+	int getWidth();
+
+	int getHeight();
+
+	boolean isMine(int x, int y);
+
+	boolean isRevealed(int x, int y);
+
+	boolean isFlagged(int x, int y);
+
+	int getAdjacentMines(int x, int y);
+
+	void setMine(int x, int y);
+
+	/**
+	 * Places a mine and updates the adjacent mine counts around it.
+	 */
+	void addMine(int x, int y);
+
+	/**
+	 * Recomputes every adjacent mine count after mines have been placed with {@link #setMine(int, int)}.
+	 */
+	void computeAdjacency();
+
+	/**
+	 * Reveals a cell unless it is flagged.
+	 */
+	void reveal(int x, int y);
+
+	/**
+	 * Flags or unflags a cell unless it is revealed.
+	 */
+	void toggleFlag(int x, int y);
+
+	/**
+	 * Removes every mine and hides every cell, keeping flags where they are.
+	 */
+	void clear();
+
+	/**
+	 * Removes wrong flags and reveals every cell that isn't flagged.
+	 */
+	void revealAll();
+
+	boolean allSafeRevealed();
+
+	/**
+	 * @return a packed bitset field, or the original one object per cell field if the
+	 * {@code minesweeper.field} system property is {@code cells}
+	 */
+	static MineField create(int width, int height) {
+		if("cells".equals(System.getProperty("minesweeper.field"))) {
+			return new CellField(width, height);
+		}
+		return new BitField(width, height);
+	}
+}
@@ -0,0 +1,72 @@
+package dev.rdh.minesweeper;
+
+import dev.rdh.games.util.IntIntMap;
+
+import java.util.SplittableRandom;
+
+/**
+ * Places mines in a single pass that only touches the cells it places mines in and their neighbours.
+ */
+public final class MinePlacer {
+	private MinePlacer() {}
+
+	/**
+	 * Places {@code numMines} mines uniformly at random among the cells outside the 3x3 neighbourhood of {@code (safeX, safeY)},
+	 * so that revealing it floods. If that leaves too little room, only {@code (safeX, safeY)} itself is kept clear.
+	 * <p>
+	 * This is a partial Fisher-Yates shuffle over the allowed cells, with the swapped entries kept in a map
+	 * instead of materialising the whole array.
+	 */
+	public static void place(MineField field, int numMines, int safeX, int safeY, SplittableRandom random) {
+		int width = field.getWidth(), height = field.getHeight();
+		int[] excluded = excluded(width, height, numMines, safeX, safeY);
+		int candidates = width * height - excluded.length;
+		if(numMines > candidates) {
+			throw new IllegalArgumentException("Cannot fit " + numMines + " mines in a " + width + "x" + height + " board");
+		}
+
+		IntIntMap swapped = new IntIntMap(numMines * 2);
+		for(int i = 0; i < numMines; i++) {
+			int j = i + random.nextInt(candidates - i);
+			int picked = swapped.getOrDefault(j, j);
+			swapped.put(j, swapped.getOrDefault(i, i));
+
+			int cell = skipExcluded(picked, excluded);
+			field.addMine(cell % width, cell / width);
+		}
+	}
+
+	/**
+	 * @return the cells to keep clear as {@code y * width + x}, in ascending order
+	 */
+	private static int[] excluded(int width, int height, int numMines, int safeX, int safeY) {
+		int minX = Math.max(safeX - 1, 0), maxX = Math.min(safeX + 1, width - 1);
+		int minY = Math.max(safeY - 1, 0), maxY = Math.min(safeY + 1, height - 1);
+		int count = (maxX - minX + 1) * (maxY - minY + 1);
+
+		if(numMines > width * height - count) {
+			return new int[] { safeY * width + safeX };
+		}
+
+		int[] excluded = new int[count];
+		int i = 0;
+		for(int y = minY; y <= maxY; y++) {
+			for(int x = minX; x <= maxX; x++) {
+				excluded[i++] = y * width + x;
+			}
+		}
+		return excluded;
+	}
+
+	/**
+	 * maps an index among the allowed cells to the cell it refers to
+	 */
+	private static int skipExcluded(int index, int[] excluded) {
+		for(int cell : excluded) {
+			if(index >= cell) {
+				index++;
+			}
+		}
+		return index;
+	}
+}
@@ -1,9 +1,18 @@
 package dev.rdh.minesweeper;
 
 import dev.rdh.games.Console;
+import dev.rdh.games.Replay;
 import dev.rdh.games.SelectionModal;
 
+import java.io.IOException;
+import java.util.List;
+
 public class Minesweeper {
+	/**
+	 * the name games are recorded under
+	 */
+	public static final String REPLAY_NAME = "Minesweeper";
+
 	public static void main(String[] args) {
 		if(System.getProperty("os.name").toLowerCase().contains("wind")) {
 			System.err.println("This game is not supported on Windows!");
@@ -11,32 +20,68 @@ public class Minesweeper {
 		}
 
 		try(Console console = new Console()) {
-			console.echo(false);
-			console.clearScreen();
-			console.hideCursor();
+			play(console);
+		} catch(Exception e) {
+			e.printStackTrace(System.err);
+		}
+	}
 
-			SelectionModal main = SelectionModal.of("Welcome to Minesweeper!\nChoose an option:", "Play", "Controls", "Exit");
+	/**
+	 * Runs the game on a console that is already open, until the player exits or the input ends.
+	 */
+	public static void play(Console console) {
+		console.echo(false);
+		console.clearScreen();
+		console.hideCursor();
 
-			final Difficulty[] diffs = Difficulty.values();
-			SelectionModal diffSelection = SelectionModal.of("Choose a difficulty:", diffs);
-			while(true) {
-				int mainSelection = main.displayOn(console);
-				if(mainSelection == 2) {
-					console.clearScreen();
-					break;
-				}
-				if(mainSelection == 1) {
-					configureControls(console);
-					continue;
+		final Difficulty[] diffs = Difficulty.values();
+		SelectionModal diffSelection = SelectionModal.of("Choose a difficulty:", diffs);
+		Config.load();
+		while(!console.isInputEnded()) {
+			List<String> options = Game.hasSave(console) ? List.of("Play", "Resume", "Controls", "Exit") : List.of("Play", "Controls", "Exit");
+			StringBuilder prompt = new StringBuilder("Welcome to Minesweeper!\n");
+			for(String problem : Config.problems()) {
+				prompt.append("Skipped ").append(problem).append('\n');
+			}
+			prompt.append("Choose an option:");
+			String selection = options.get(SelectionModal.of(prompt.toString(), options).displayOn(console));
+			if(selection.equals("Exit") || console.isInputEnded()) {
+				console.clearScreen();
+				break;
+			}
+			if(selection.equals("Controls")) {
+				configureControls(console);
+				continue;
+			}
+			if(selection.equals("Resume")) {
+				Game game = Game.resume(console);
+				if(game != null) {
+					game.run();
 				}
-				Difficulty diff = diffs[diffSelection.displayOn(console)];
+				continue;
+			}
+			Difficulty diff = diffs[diffSelection.displayOn(console)];
+			if(console.isInputEnded()) break;
+			if(diff == Difficulty.ENDLESS) {
+				new EndlessGame(console).run();
+			} else {
 				new Game(console, diff).run();
 			}
-		} catch(Exception e) {
-			e.printStackTrace(System.err);
 		}
 	}
 
+	/**
+	 * Plays a game recorded by {@link Game} back on {@code console}, whose input should come from {@link Replay#input(boolean)}.
+	 *
+	 * @return how the game ended, to compare between runs
+	 */
+	public static String replay(Console console, Replay replay) throws IOException {
+		console.echo(false);
+		console.clearScreen();
+		console.hideCursor();
+		return Game.replay(console, replay);
+	}
+
 	private static void configureControls(Console console) {
 		console.clearScreen();
 
@@ -45,9 +90,12 @@ public class Minesweeper {
 			SelectionModal controls = SelectionModal.of("Choose an option to change:",
 					"Use WASD: " + (config.useWASD ? "Yes" : "No"), "Chord: " + key(config.chord),
 					"Flag: " + key(config.flag), "Reveal: " + key(config.reveal), "Reset: " + key(config.reset),
+					"Hint: " + key(config.hint),
+					"No Guessing: " + (config.noGuess ? "Yes" : "No"),
 					"Change Custom Difficulty",
 					"Reset Controls to Defaults", "Back");
 			int selection = controls.displayOn(console);
+			if(console.isInputEnded()) return;
 
 			switch(selection) {
 				case 0 -> config.useWASD = !config.useWASD;
@@ -68,12 +116,17 @@ public class Minesweeper {
 					config.reset = console.readChar();
 				}
 				case 5 -> {
+					console.print("Enter a new hint key: _");
+					config.hint = console.readChar();
+				}
+				case 6 -> config.noGuess = !config.noGuess;
+				case 7 -> {
 					config.width = console.readInt("Enter a width: ", 1, Console.DEFAULT_TERMINAL_WIDTH / 2);
 					config.height = console.readInt("Enter a height: ", 1, Console.DEFAULT_TERMINAL_HEIGHT - 2);
 					config.mines = console.readInt("Enter a number of mines: ", 0, config.width * config.height - 1);
 				}
-				case 6 -> config = Config.defaultConfig();
-				case 7 -> {
+				case 8 -> config = Config.defaultConfig();
+				case 9 -> {
 					config.save();
 					return;
 				}
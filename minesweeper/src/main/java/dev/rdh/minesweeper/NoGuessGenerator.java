@@ -0,0 +1,57 @@
+package dev.rdh.minesweeper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Finds mine layouts that the {@link Solver} can clear from the first click, by trying candidates on every core at once
+ * and keeping whichever solvable one turns up first.
+ */
+public final class NoGuessGenerator {
+	private static final long NONE = Long.MIN_VALUE;
+
+	private NoGuessGenerator() {}
+
+	/**
+	 * @return the seed to give {@link MinePlacer} for a solvable layout, or {@link Long#MIN_VALUE} if none was found
+	 * before {@code budgetNanos} ran out
+	 */
+	public static long findSeed(int width, int height, int numMines, int x, int y, SplittableRandom random, long budgetNanos) {
+		long deadline = System.nanoTime() + budgetNanos;
+		AtomicLong found = new AtomicLong(NONE);
+
+		ForkJoinPool pool = ForkJoinPool.commonPool();
+		List<ForkJoinTask<?>> workers = new ArrayList<>();
+		for(int i = 0; i < Math.max(pool.getParallelism(), 1); i++) {
+			SplittableRandom workerRandom = random.split();
+			workers.add(pool.submit(() -> search(width, height, numMines, x, y, workerRandom, deadline, found)));
+		}
+		for(ForkJoinTask<?> worker : workers) {
+			worker.join();
+		}
+
+		return found.get();
+	}
+
+	private static void search(int width, int height, int numMines, int x, int y,
+							   SplittableRandom random, long deadline, AtomicLong found) {
+		BitField candidate = new BitField(width, height);
+		Solver solver = new Solver(candidate, numMines);
+
+		while(found.get() == NONE && System.nanoTime() - deadline < 0) {
+			long seed = random.nextLong();
+			if(seed == NONE) continue;
+
+			candidate.clear();
+			MinePlacer.place(candidate, numMines, x, y, new SplittableRandom(seed));
+			if(solver.solve(x, y)) {
+				found.compareAndSet(NONE, seed);
+				return;
+			}
+		}
+	}
+}
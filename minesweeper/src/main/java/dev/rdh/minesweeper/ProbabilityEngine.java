@@ -0,0 +1,736 @@
+package dev.rdh.minesweeper;
+
+import dev.rdh.games.util.IntList;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Works out the chance of each hidden cell being a mine from what the player can see.
+ * <p>
+ * The frontier (hidden cells next to a revealed number) is split into independent components that share no numbers.
+ * Each component is counted with a dynamic program over its cells, where the state is how many mines each of its numbers still needs,
+ * giving the number of solutions for every possible mine count in the component and how many of those have a mine in each cell.
+ * Components are then weighed against each other and against the cells away from the frontier using the total mine count.
+ * <p>
+ * The frontier and its components are kept up to date from the cells the board reports as changed: only components next
+ * to a newly revealed cell are regrouped, and one that comes out the same as before keeps its counts.
+ * Components too big to count within {@link #STATE_BUDGET} fall back to a local estimate and mark the result {@link #isApproximate() approximate}.
+ * Flags are ignored, since they may be wrong.
+ */
+public class ProbabilityEngine {
+	/**
+	 * the most dynamic programming states one component may use before it is estimated instead
+	 */
+	private static final int STATE_BUDGET = 50_000;
+
+	private final Board board;
+	private final MineField field;
+	private final int width, height;
+
+	/**
+	 * hidden cells next to at least one revealed cell
+	 */
+	private final BitSet frontier = new BitSet();
+	private int frontierSize;
+	private boolean stale = true;
+
+	/**
+	 * the cells revealed and flagged as of the last update, to tell which of the cells reported as changed really did
+	 */
+	private final BitSet revealed = new BitSet(), flagged = new BitSet();
+	private int hidden;
+
+	/**
+	 * the component each frontier cell, and each number constraining one, belongs to
+	 */
+	private final Component[] owner;
+	private final List<Component> components = new ArrayList<>();
+
+	/**
+	 * components broken up this update, by {@link #hash}, so that one found again unchanged needn't be counted again
+	 */
+	private final Map<Integer, Component> retired = new HashMap<>();
+
+	private final IntList opened = new IntList(), seeds = new IntList();
+	private final IntList cells = new IntList(), constraints = new IntList();
+	private final BitSet visited = new BitSet(), seenConstraints = new BitSet();
+
+	private final double[] probabilities;
+
+	@Getter
+	private double outsideProbability;
+	private int outside;
+
+	/**
+	 * the hidden, unflagged cell least likely to be a mine as {@code y * width + x}, or -1 if there is none
+	 */
+	@Getter
+	private int safestCell = -1;
+
+	/**
+	 * the cell away from the frontier last suggested, looked at first next time
+	 */
+	private int outsideCell = 0;
+
+	@Getter
+	private boolean approximate;
+
+	public ProbabilityEngine(Board board) {
+		this.board = board;
+		this.field = board.getField();
+		this.width = field.getWidth();
+		this.height = field.getHeight();
+		this.probabilities = new double[width * height];
+		this.owner = new Component[width * height];
+	}
+
+	/**
+	 * Makes the next {@link #update(IntList)} rebuild everything instead of relying on the changes it is given.
+	 */
+	public void invalidate() {
+		stale = true;
+	}
+
+	/**
+	 * Brings the probabilities up to date. Only cells that were revealed are followed into the components around them,
+	 * and if none were, nothing is counted again.
+	 *
+	 * @param changed the cells that changed since the last update as {@code y * width + x}, or {@code null} if unknown
+	 */
+	public void update(IntList changed) {
+		if(!board.isStarted()) {
+			// the first reveal is always safe, and places the mines, so everything is built afresh after it
+			stale = true;
+			approximate = false;
+			outsideProbability = 0;
+			safestCell = board.getCursor();
+			return;
+		}
+
+		if(stale || changed == null) {
+			rebuild();
+		} else {
+			opened.clear();
+			boolean flagsChanged = false;
+			for(int i = 0; i < changed.size(); i++) {
+				int cell = changed.get(i);
+				int x = cell % width, y = cell / width;
+				boolean isRevealed = field.isRevealed(x, y);
+				if(isRevealed != revealed.get(cell)) {
+					revealed.set(cell, isRevealed);
+					hidden += isRevealed ? -1 : 1;
+					opened.add(cell);
+				}
+				boolean isFlagged = field.isFlagged(x, y);
+				if(isFlagged != flagged.get(cell)) {
+					flagged.set(cell, isFlagged);
+					flagsChanged = true;
+				}
+			}
+
+			if(opened.isEmpty()) {
+				// flags don't change the probabilities, only which cell can be suggested
+				if(flagsChanged) {
+					pickSafestCell();
+				}
+				return;
+			}
+			updateComponents();
+		}
+
+		computeProbabilities();
+	}
+
+	public boolean isFrontier(int x, int y) {
+		return frontier.get(y * width + x);
+	}
+
+	/**
+	 * @return the index of the next frontier cell at or after {@code from}, or -1 if there is none
+	 */
+	public int nextFrontierCell(int from) {
+		return frontier.nextSetBit(from);
+	}
+
+	/**
+	 * @return the chance that the cell is a mine, or {@link Double#NaN} if it is revealed
+	 */
+	public double getProbability(int x, int y) {
+		if(field.isRevealed(x, y)) return Double.NaN;
+		return isFrontier(x, y) ? probabilities[y * width + x] : outsideProbability;
+	}
+
+	private void updateFrontier(int x, int y) {
+		int cell = y * width + x;
+		boolean isFrontier = !field.isRevealed(x, y) && hasRevealedNeighbour(x, y);
+		if(isFrontier != frontier.get(cell)) {
+			frontier.set(cell, isFrontier);
+			frontierSize += isFrontier ? 1 : -1;
+		}
+	}
+
+	private boolean hasRevealedNeighbour(int x, int y) {
+		for(int y1 = Math.max(y - 1, 0); y1 <= Math.min(y + 1, height - 1); y1++) {
+			for(int x1 = Math.max(x - 1, 0); x1 <= Math.min(x + 1, width - 1); x1++) {
+				if(field.isRevealed(x1, y1)) return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Reads the whole board again and regroups the whole frontier.
+	 */
+	private void rebuild() {
+		hidden = 0;
+		for(int y = 0; y < height; y++) {
+			for(int x = 0; x < width; x++) {
+				int cell = y * width + x;
+				revealed.set(cell, field.isRevealed(x, y));
+				flagged.set(cell, field.isFlagged(x, y));
+				if(!revealed.get(cell)) hidden++;
+				updateFrontier(x, y);
+			}
+		}
+
+		for(Component component : components) {
+			retired.put(component.hash, component);
+		}
+		components.clear();
+		Arrays.fill(owner, null);
+
+		for(int cell = frontier.nextSetBit(0); cell >= 0; cell = frontier.nextSetBit(cell + 1)) {
+			if(owner[cell] == null) {
+				group(cell);
+			}
+		}
+		retired.clear();
+		stale = false;
+	}
+
+	/**
+	 * Regroups just the components next to the cells in {@link #opened}, leaving every other component as it was.
+	 */
+	private void updateComponents() {
+		seeds.clear();
+		for(int i = 0; i < opened.size(); i++) {
+			int cell = opened.get(i);
+			int cx = cell % width, cy = cell / width;
+			for(int y = Math.max(cy - 1, 0); y <= Math.min(cy + 1, height - 1); y++) {
+				for(int x = Math.max(cx - 1, 0); x <= Math.min(cx + 1, width - 1); x++) {
+					updateFrontier(x, y);
+					int neighbour = y * width + x;
+					if(owner[neighbour] != null) {
+						retire(owner[neighbour]);
+					}
+					if(frontier.get(neighbour)) {
+						seeds.add(neighbour);
+					}
+				}
+			}
+		}
+
+		for(int i = 0; i < seeds.size(); i++) {
+			int cell = seeds.get(i);
+			if(frontier.get(cell) && owner[cell] == null) {
+				group(cell);
+			}
+		}
+		retired.clear();
+	}
+
+	/**
+	 * Takes a component apart, to be grouped again from its cells that are still on the frontier.
+	 */
+	private void retire(Component component) {
+		components.remove(component);
+		retired.put(component.hash, component);
+		for(int cell : component.cells) {
+			owner[cell] = null;
+			seeds.add(cell);
+		}
+		for(int constraint : component.constraints) {
+			owner[constraint] = null;
+		}
+	}
+
+	/**
+	 * Finds the component {@code start} is in, reusing a retired one if nothing about it changed.
+	 * Any component it reaches that's still standing has been joined to it, so is retired.
+	 */
+	private void group(int start) {
+		cells.clear();
+		constraints.clear();
+		visited.set(start);
+		cells.add(start);
+
+		for(int i = 0; i < cells.size(); i++) {
+			int cell = cells.get(i);
+			int cx = cell % width, cy = cell / width;
+			for(int ry = Math.max(cy - 1, 0); ry <= Math.min(cy + 1, height - 1); ry++) {
+				for(int rx = Math.max(cx - 1, 0); rx <= Math.min(cx + 1, width - 1); rx++) {
+					int constraint = ry * width + rx;
+					if(!field.isRevealed(rx, ry) || seenConstraints.get(constraint)) continue;
+					seenConstraints.set(constraint);
+					constraints.add(constraint);
+
+					for(int y = Math.max(ry - 1, 0); y <= Math.min(ry + 1, height - 1); y++) {
+						for(int x = Math.max(rx - 1, 0); x <= Math.min(rx + 1, width - 1); x++) {
+							int neighbour = y * width + x;
+							if(frontier.get(neighbour) && !visited.get(neighbour)) {
+								if(owner[neighbour] != null) {
+									retire(owner[neighbour]);
+								}
+								visited.set(neighbour);
+								cells.add(neighbour);
+							}
+						}
+					}
+				}
+			}
+		}
+
+		int hash = hash(cells, constraints);
+		Component component = retired.get(hash);
+		if(component == null || !component.matches(cells, constraints)) {
+			component = new Component(cells, constraints, hash);
+		}
+		components.add(component);
+		for(int i = 0; i < cells.size(); i++) {
+			owner[cells.get(i)] = component;
+			visited.clear(cells.get(i));
+		}
+		for(int i = 0; i < constraints.size(); i++) {
+			owner[constraints.get(i)] = component;
+			seenConstraints.clear(constraints.get(i));
+		}
+	}
+
+	/**
+	 * @return a hash of a component's cells, the numbers constraining them and what those numbers are
+	 */
+	private int hash(IntList cells, IntList constraints) {
+		int hash = 1;
+		for(int i = 0; i < cells.size(); i++) {
+			hash = 31 * hash + cells.get(i);
+		}
+		for(int i = 0; i < constraints.size(); i++) {
+			int constraint = constraints.get(i);
+			hash = 31 * (31 * hash + constraint) + field.getAdjacentMines(constraint % width, constraint / width);
+		}
+		return hash;
+	}
+
+	private void computeProbabilities() {
+		safestCell = -1;
+		approximate = false;
+		outside = hidden - frontierSize;
+		int mines = board.getNumMines();
+
+		for(Component component : components) {
+			approximate |= component.approximate;
+		}
+
+		if(approximate) {
+			estimate(components, outside, mines);
+		} else {
+			combine(components, outside, mines);
+		}
+
+		pickSafestCell();
+	}
+
+	/**
+	 * Weighs every component's solutions by how many ways the remaining mines fit in the cells away from the frontier.
+	 */
+	private void combine(List<Component> components, int outside, int mines) {
+		int n = components.size();
+
+		// prefix[i] convolves components before i, suffix[i] those from i on
+		double[][] prefix = new double[n + 1][];
+		double[][] suffix = new double[n + 1][];
+		prefix[0] = new double[] { 1 };
+		suffix[n] = new double[] { 1 };
+		for(int i = 0; i < n; i++) {
+			prefix[i + 1] = convolve(prefix[i], components.get(i).counts);
+		}
+		for(int i = n - 1; i >= 0; i--) {
+			suffix[i] = convolve(components.get(i).counts, suffix[i + 1]);
+		}
+
+		double[] all = prefix[n];
+		double[] weights = outsideWeights(all.length, outside, mines);
+
+		double total = 0, outsideMines = 0;
+		for(int t = 0; t < all.length; t++) {
+			total += all[t] * weights[t];
+			outsideMines += all[t] * weights[t] * (mines - t);
+		}
+
+		if(total == 0) {
+			// the visible numbers contradict each other or the mine count, which shouldn't happen
+			estimate(components, outside, mines);
+			return;
+		}
+
+		outsideProbability = outside == 0 ? 0 : outsideMines / total / outside;
+
+		for(int c = 0; c < n; c++) {
+			Component component = components.get(c);
+			double[] others = convolve(prefix[c], suffix[c + 1]);
+
+			// weight of the rest of the board given this component holds k mines
+			double[] given = new double[component.counts.length];
+			for(int k = 0; k < given.length; k++) {
+				for(int s = 0; s < others.length && k + s < weights.length; s++) {
+					given[k] += others[s] * weights[k + s];
+				}
+			}
+
+			for(int i = 0; i < component.cells.length; i++) {
+				double p = 0;
+				for(int k = 0; k < given.length; k++) {
+					p += component.mineCounts[i][k] * given[k];
+				}
+				probabilities[component.cells[i]] = p / total;
+			}
+		}
+	}
+
+	/**
+	 * Falls back to each component's own probabilities, ignoring how the rest of the board affects them.
+	 */
+	private void estimate(List<Component> components, int outside, int mines) {
+		approximate = true;
+		double expectedMines = 0;
+		for(Component component : components) {
+			for(int i = 0; i < component.cells.length; i++) {
+				probabilities[component.cells[i]] = component.localProbabilities[i];
+				expectedMines += component.localProbabilities[i];
+			}
+		}
+		outsideProbability = outside == 0 ? 0 : Math.max(0, Math.min(1, (mines - expectedMines) / outside));
+	}
+
+	private void pickSafestCell() {
+		safestCell = -1;
+		double best = Double.POSITIVE_INFINITY;
+		for(int cell = frontier.nextSetBit(0); cell >= 0; cell = frontier.nextSetBit(cell + 1)) {
+			if(flagged.get(cell)) continue;
+			if(probabilities[cell] < best) {
+				best = probabilities[cell];
+				safestCell = cell;
+			}
+		}
+
+		if(outside > 0 && outsideProbability < best) {
+			// any cell away from the frontier will do, so keep suggesting the same one while it's there
+			int cell = nextOutsideCell(outsideCell);
+			if(cell < 0) {
+				cell = nextOutsideCell(0);
+			}
+			if(cell >= 0) {
+				safestCell = outsideCell = cell;
+			}
+		}
+	}
+
+	/**
+	 * @return the first hidden, unflagged cell away from the frontier at or after {@code from}, or -1 if there is none
+	 */
+	private int nextOutsideCell(int from) {
+		for(int cell = revealed.nextClearBit(from); cell < width * height; cell = revealed.nextClearBit(cell + 1)) {
+			if(!frontier.get(cell) && !flagged.get(cell)) return cell;
+		}
+		return -1;
+	}
+
+	/**
+	 * @return {@code C(outside, mines - t)} for every {@code t} below {@code length}, scaled so the largest is 1
+	 */
+	private static double[] outsideWeights(int length, int outside, int mines) {
+		double[] logs = new double[length];
+		double max = Double.NEGATIVE_INFINITY;
+		for(int t = 0; t < length; t++) {
+			int r = mines - t;
+			logs[t] = r < 0 || r > outside ? Double.NEGATIVE_INFINITY : logBinomial(outside, r);
+			max = Math.max(max, logs[t]);
+		}
+
+		double[] weights = new double[length];
+		for(int t = 0; t < length; t++) {
+			weights[t] = max == Double.NEGATIVE_INFINITY ? 0 : Math.exp(logs[t] - max);
+		}
+		return weights;
+	}
+
+	private static double logBinomial(int n, int k) {
+		return logFactorial(n) - logFactorial(k) - logFactorial(n - k);
+	}
+
+	private static double logFactorial(int n) {
+		if(n < 2) return 0;
+		if(n < 32) {
+			double result = 0;
+			for(int i = 2; i <= n; i++) {
+				result += Math.log(i);
+			}
+			return result;
+		}
+		// Stirling's series
+		double x = n;
+		return x * Math.log(x) - x + 0.5 * Math.log(2 * Math.PI * x) + 1 / (12 * x) - 1 / (360 * x * x * x);
+	}
+
+	private static double[] convolve(double[] a, double[] b) {
+		double[] result = new double[a.length + b.length - 1];
+		for(int i = 0; i < a.length; i++) {
+			if(a[i] == 0) continue;
+			for(int j = 0; j < b.length; j++) {
+				result[i + j] += a[i] * b[j];
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * A group of frontier cells and the numbers constraining them.
+	 */
+	private final class Component {
+		private final int[] cells;
+		private final int[] constraints;
+
+		/**
+		 * how many mines each of {@link #constraints} is next to
+		 */
+		private final int[] needs;
+		private final int hash;
+
+		/**
+		 * counts[k]: the number of ways to place exactly k mines in this component
+		 */
+		private double[] counts;
+
+		/**
+		 * mineCounts[i][k]: how many of those ways have a mine in cell i
+		 */
+		private double[][] mineCounts;
+
+		private double[] localProbabilities;
+		private boolean approximate;
+
+		private Component(IntList cellList, IntList constraintList, int hash) {
+			this.hash = hash;
+			int n = cellList.size();
+			this.cells = new int[n];
+			for(int i = 0; i < n; i++) {
+				cells[i] = cellList.get(i);
+			}
+
+			int m = constraintList.size();
+			this.constraints = new int[m];
+			int[] initialNeeds = new int[m];
+			this.needs = initialNeeds;
+			int[][] cellConstraints = new int[n][];
+			int[] lastCell = new int[m];
+			Map<Integer, Integer> localIndex = new HashMap<>();
+			for(int i = 0; i < n; i++) {
+				localIndex.put(cells[i], i);
+			}
+
+			List<List<Integer>> byCell = new ArrayList<>();
+			for(int i = 0; i < n; i++) {
+				byCell.add(new ArrayList<>());
+			}
+			for(int j = 0; j < m; j++) {
+				int constraint = constraintList.get(j);
+				constraints[j] = constraint;
+				int rx = constraint % width, ry = constraint / width;
+				initialNeeds[j] = field.getAdjacentMines(rx, ry);
+				lastCell[j] = -1;
+				for(int y = Math.max(ry - 1, 0); y <= Math.min(ry + 1, height - 1); y++) {
+					for(int x = Math.max(rx - 1, 0); x <= Math.min(rx + 1, width - 1); x++) {
+						Integer i = localIndex.get(y * width + x);
+						if(i == null) continue;
+						byCell.get(i).add(j);
+						lastCell[j] = Math.max(lastCell[j], i);
+					}
+				}
+			}
+			for(int i = 0; i < n; i++) {
+				cellConstraints[i] = byCell.get(i).stream().mapToInt(Integer::intValue).toArray();
+			}
+
+			// remaining[j]: members of constraint j not yet assigned, updated as cells are assigned in order
+			int[][] remainingAfter = new int[n + 1][m];
+			for(int i = n - 1; i >= 0; i--) {
+				remainingAfter[i] = remainingAfter[i + 1].clone();
+				for(int j : cellConstraints[i]) {
+					remainingAfter[i][j]++;
+				}
+			}
+
+			if(!count(initialNeeds, cellConstraints, remainingAfter)) {
+				approximate = true;
+				estimateLocally(initialNeeds, cellConstraints, remainingAfter[0]);
+			}
+		}
+
+		/**
+		 * @return whether this is the component with those cells and numbers, with the numbers as they are now
+		 */
+		private boolean matches(IntList cellList, IntList constraintList) {
+			if(cellList.size() != cells.length || constraintList.size() != constraints.length) return false;
+			for(int i = 0; i < cells.length; i++) {
+				if(cellList.get(i) != cells[i]) return false;
+			}
+			for(int j = 0; j < constraints.length; j++) {
+				int constraint = constraintList.get(j);
+				if(constraint != constraints[j] || field.getAdjacentMines(constraint % width, constraint / width) != needs[j]) return false;
+			}
+			return true;
+		}
+
+		/**
+		 * Forward and backward passes over the cells in order, merging partial assignments that leave every number needing the same amount.
+		 *
+		 * @return false if it ran out of budget
+		 */
+		private boolean count(int[] initialNeeds, int[][] cellConstraints, int[][] remainingAfter) {
+			int n = cells.length;
+			List<Map<State, double[]>> forward = new ArrayList<>(n + 1);
+			Map<State, double[]> first = new HashMap<>();
+			first.put(new State(initialNeeds), new double[] { 1 });
+			forward.add(first);
+
+			int states = 0;
+			for(int i = 0; i < n; i++) {
+				Map<State, double[]> next = new HashMap<>();
+				for(Map.Entry<State, double[]> entry : forward.get(i).entrySet()) {
+					for(int v = 0; v <= 1; v++) {
+						State successor = entry.getKey().assign(cellConstraints[i], v, remainingAfter[i + 1]);
+						if(successor == null) continue;
+						next.merge(successor, shift(entry.getValue(), v), ProbabilityEngine::add);
+					}
+				}
+				states += next.size();
+				if(states > STATE_BUDGET) return false;
+				forward.add(next);
+			}
+
+			// backward[s]: ways to finish from state s at cell i, by number of mines placed from i on
+			Map<State, double[]> backward = new HashMap<>();
+			for(State end : forward.get(n).keySet()) {
+				backward.put(end, new double[] { 1 });
+			}
+
+			mineCounts = new double[n][];
+			for(int i = n - 1; i >= 0; i--) {
+				Map<State, double[]> previous = new HashMap<>();
+				double[] mineCount = new double[n + 1];
+				for(Map.Entry<State, double[]> entry : forward.get(i).entrySet()) {
+					double[] ways = new double[] { 0 };
+					for(int v = 0; v <= 1; v++) {
+						State successor = entry.getKey().assign(cellConstraints[i], v, remainingAfter[i + 1]);
+						if(successor == null) continue;
+						double[] after = backward.get(successor);
+						if(after == null) continue;
+
+						double[] shifted = shift(after, v);
+						ways = add(ways, shifted);
+						if(v == 1) {
+							double[] total = convolve(entry.getValue(), shifted);
+							for(int k = 0; k < total.length && k <= n; k++) {
+								mineCount[k] += total[k];
+							}
+						}
+					}
+					previous.put(entry.getKey(), ways);
+				}
+				mineCounts[i] = mineCount;
+				backward = previous;
+			}
+
+			counts = new double[n + 1];
+			double[] all = backward.get(new State(initialNeeds));
+			if(all != null) {
+				System.arraycopy(all, 0, counts, 0, Math.min(all.length, counts.length));
+			}
+
+			localProbabilities = new double[n];
+			double total = Arrays.stream(counts).sum();
+			for(int i = 0; i < n; i++) {
+				localProbabilities[i] = total == 0 ? 0 : Arrays.stream(mineCounts[i]).sum() / total;
+			}
+			return true;
+		}
+
+		/**
+		 * gives each cell the highest share of missing mines among the numbers next to it
+		 */
+		private void estimateLocally(int[] needs, int[][] cellConstraints, int[] members) {
+			localProbabilities = new double[cells.length];
+			for(int i = 0; i < cells.length; i++) {
+				for(int j : cellConstraints[i]) {
+					localProbabilities[i] = Math.max(localProbabilities[i], (double) needs[j] / members[j]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * how many more mines each number in a component still needs
+	 */
+	private static final class State {
+		private final int[] needs;
+		private final int hash;
+
+		private State(int[] needs) {
+			this.needs = needs;
+			this.hash = Arrays.hashCode(needs);
+		}
+
+		/**
+		 * @return the state after giving the next cell {@code mine} mines, or {@code null} if that breaks a number
+		 */
+		private State assign(int[] constraints, int mine, int[] remaining) {
+			int[] next = needs.clone();
+			for(int j : constraints) {
+				next[j] -= mine;
+				if(next[j] < 0 || next[j] > remaining[j]) return null;
+			}
+			return new State(next);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof State s && hash == s.hash && Arrays.equals(needs, s.needs);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+
+	private static double[] shift(double[] counts, int by) {
+		if(by == 0) return counts;
+		double[] shifted = new double[counts.length + by];
+		System.arraycopy(counts, 0, shifted, by, counts.length);
+		return shifted;
+	}
+
+	private static double[] add(double[] a, double[] b) {
+		double[] result = new double[Math.max(a.length, b.length)];
+		for(int i = 0; i < a.length; i++) result[i] += a[i];
+		for(int i = 0; i < b.length; i++) result[i] += b[i];
+		return result;
+	}
+}
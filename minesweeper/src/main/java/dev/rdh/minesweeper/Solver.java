@@ -0,0 +1,215 @@
+package dev.rdh.minesweeper;
+
+import dev.rdh.games.util.IntQueue;
+
+import java.util.Arrays;
+
+/**
+ * Plays a board from a first click using only deductions that never need a guess,
+ * to find out whether the whole board can be cleared that way.
+ * <p>
+ * It knows only what a player would: the numbers on revealed cells and the total mine count.
+ * Two kinds of deduction are used, each repeated until it stops making progress:
+ * <ul>
+ *     <li>single cell: a number whose mines are all found has only safe neighbours left,
+ *     and one with exactly as many hidden neighbours as missing mines has only mines left</li>
+ *     <li>pairs of nearby numbers: if {@code B} needs as many more mines than {@code A} as it has hidden cells that {@code A} doesn't,
+ *     those cells are all mines and {@code A}'s hidden cells outside {@code B} are all safe</li>
+ * </ul>
+ */
+public class Solver {
+	private static final byte HIDDEN = 0, SAFE = 1, MINE = 2;
+
+	/**
+	 * neighbourhood masks cover the 7x7 window around a cell, which holds the neighbours of everything within two cells of it
+	 */
+	private static final int WINDOW = 7, CENTER = 3;
+
+	private final MineField field;
+	private final int width, height;
+	private final int numMines;
+
+	private final byte[] state;
+	private final IntQueue openQueue = new IntQueue();
+
+	private int hidden;
+	private int minesLeft;
+
+	public Solver(MineField field, int numMines) {
+		this.field = field;
+		this.width = field.getWidth();
+		this.height = field.getHeight();
+		this.numMines = numMines;
+		this.state = new byte[width * height];
+	}
+
+	public static boolean isSolvable(MineField field, int numMines, int x, int y) {
+		return new Solver(field, numMines).solve(x, y);
+	}
+
+	/**
+	 * @return whether every safe cell can be found without guessing after revealing {@code (x, y)}
+	 */
+	public boolean solve(int x, int y) {
+		Arrays.fill(state, HIDDEN);
+		hidden = width * height;
+		minesLeft = numMines;
+
+		if(field.isMine(x, y)) return false;
+		open(x, y);
+
+		while(hidden != minesLeft) {
+			if(minesLeft == 0) {
+				openAllHidden();
+			} else if(!applySingleCellRules() && !applyPairRules()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean applySingleCellRules() {
+		boolean progress = false;
+		for(int y = 0; y < height; y++) {
+			for(int x = 0; x < width; x++) {
+				if(state[y * width + x] != SAFE) continue;
+
+				int hiddenAround = countAround(x, y, HIDDEN);
+				if(hiddenAround == 0) continue;
+
+				int missing = field.getAdjacentMines(x, y) - countAround(x, y, MINE);
+				if(missing == 0) {
+					setAround(x, y, SAFE);
+					progress = true;
+				} else if(missing == hiddenAround) {
+					setAround(x, y, MINE);
+					progress = true;
+				}
+			}
+		}
+		return progress;
+	}
+
+	private boolean applyPairRules() {
+		for(int ay = 0; ay < height; ay++) {
+			for(int ax = 0; ax < width; ax++) {
+				if(state[ay * width + ax] != SAFE) continue;
+				long a = hiddenMask(ax, ay, ax, ay);
+				if(a == 0) continue;
+				int missingA = field.getAdjacentMines(ax, ay) - countAround(ax, ay, MINE);
+
+				for(int by = Math.max(ay - 2, 0); by <= Math.min(ay + 2, height - 1); by++) {
+					for(int bx = Math.max(ax - 2, 0); bx <= Math.min(ax + 2, width - 1); bx++) {
+						if((bx == ax && by == ay) || state[by * width + bx] != SAFE) continue;
+						long b = hiddenMask(bx, by, ax, ay);
+						if((a & b) == 0) continue;
+
+						long onlyB = b & ~a;
+						int missingB = field.getAdjacentMines(bx, by) - countAround(bx, by, MINE);
+						if(missingB - missingA == Long.bitCount(onlyB) && (onlyB | (a & ~b)) != 0) {
+							setMasked(onlyB, ax, ay, MINE);
+							setMasked(a & ~b, ax, ay, SAFE);
+							return true;
+						}
+						if((a & ~b) == 0 && missingB == missingA && onlyB != 0) {
+							setMasked(onlyB, ax, ay, SAFE);
+							return true;
+						}
+					}
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return the hidden neighbours of {@code (x, y)} as bits in the window around {@code (centerX, centerY)}
+	 */
+	private long hiddenMask(int x, int y, int centerX, int centerY) {
+		long mask = 0;
+		for(int y1 = Math.max(y - 1, 0); y1 <= Math.min(y + 1, height - 1); y1++) {
+			for(int x1 = Math.max(x - 1, 0); x1 <= Math.min(x + 1, width - 1); x1++) {
+				if(state[y1 * width + x1] == HIDDEN) {
+					mask |= 1L << ((x1 - centerX + CENTER) * WINDOW + (y1 - centerY + CENTER));
+				}
+			}
+		}
+		return mask;
+	}
+
+	private void setMasked(long mask, int centerX, int centerY, byte newState) {
+		while(mask != 0) {
+			int bit = Long.numberOfTrailingZeros(mask);
+			mask &= mask - 1;
+			int x = centerX + bit / WINDOW - CENTER;
+			int y = centerY + bit % WINDOW - CENTER;
+			set(x, y, newState);
+		}
+	}
+
+	private int countAround(int x, int y, byte wanted) {
+		int count = 0;
+		for(int y1 = Math.max(y - 1, 0); y1 <= Math.min(y + 1, height - 1); y1++) {
+			for(int x1 = Math.max(x - 1, 0); x1 <= Math.min(x + 1, width - 1); x1++) {
+				if(state[y1 * width + x1] == wanted && (x1 != x || y1 != y)) {
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+
+	private void setAround(int x, int y, byte newState) {
+		for(int y1 = Math.max(y - 1, 0); y1 <= Math.min(y + 1, height - 1); y1++) {
+			for(int x1 = Math.max(x - 1, 0); x1 <= Math.min(x + 1, width - 1); x1++) {
+				set(x1, y1, newState);
+			}
+		}
+	}
+
+	private void set(int x, int y, byte newState) {
+		if(state[y * width + x] != HIDDEN) return;
+		if(newState == MINE) {
+			state[y * width + x] = MINE;
+			hidden--;
+			minesLeft--;
+		} else {
+			open(x, y);
+		}
+	}
+
+	private void openAllHidden() {
+		for(int y = 0; y < height; y++) {
+			for(int x = 0; x < width; x++) {
+				if(state[y * width + x] == HIDDEN) {
+					open(x, y);
+				}
+			}
+		}
+	}
+
+	/**
+	 * reveals a cell known to be safe, flooding out from it like {@link Board} does
+	 */
+	private void open(int x, int y) {
+		openQueue.clear();
+		state[y * width + x] = SAFE;
+		hidden--;
+		openQueue.add(y * width + x);
+
+		while(!openQueue.isEmpty()) {
+			int cell = openQueue.poll();
+			int cx = cell % width, cy = cell / width;
+			if(field.getAdjacentMines(cx, cy) > 0) continue;
+
+			for(int y1 = Math.max(cy - 1, 0); y1 <= Math.min(cy + 1, height - 1); y1++) {
+				for(int x1 = Math.max(cx - 1, 0); x1 <= Math.min(cx + 1, width - 1); x1++) {
+					if(state[y1 * width + x1] != HIDDEN) continue;
+					state[y1 * width + x1] = SAFE;
+					hidden--;
+					openQueue.add(y1 * width + x1);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,247 @@
+package dev.rdh.games.processor;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+
+/**
+ * Generates a {@code SettingsCodec} for each class marked {@code @Settings}, which sets and gets each setting as
+ * a plain field access in a {@code switch} over the keys, instead of finding the fields by reflection when the game starts.
+ */
+@SupportedAnnotationTypes(SettingsProcessor.SETTINGS)
+public class SettingsProcessor extends AbstractProcessor {
+	static final String SETTINGS = "dev.rdh.games.Settings";
+	private static final String SETTING = "dev.rdh.games.Settings.Setting";
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+		for(TypeElement annotation : annotations) {
+			for(Element element : round.getElementsAnnotatedWith(annotation)) {
+				if(element.getKind() != ElementKind.CLASS || element.getModifiers().contains(Modifier.PRIVATE)) {
+					error(element, "@Settings only goes on classes that aren't private");
+					continue;
+				}
+				generate((TypeElement) element);
+			}
+		}
+		return true;
+	}
+
+	private void generate(TypeElement type) {
+		String section = null, file = null;
+		for(AnnotationMirror mirror : type.getAnnotationMirrors()) {
+			if(!mirror.getAnnotationType().toString().equals(SETTINGS)) continue;
+			for(var entry : mirror.getElementValues().entrySet()) {
+				String value = (String) entry.getValue().getValue();
+				switch(entry.getKey().getSimpleName().toString()) {
+					case "section" -> section = value;
+					case "file" -> file = value;
+				}
+			}
+		}
+
+		List<Field> fields = new ArrayList<>();
+		boolean valid = true;
+		for(Element element : type.getEnclosedElements()) {
+			if(element.getKind() != ElementKind.FIELD || !hasSetting(element)) continue;
+			Set<Modifier> modifiers = element.getModifiers();
+			if(modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.FINAL) || modifiers.contains(Modifier.STATIC)) {
+				error(element, "Settings can't be private, final or static");
+				valid = false;
+				continue;
+			}
+			Field field = field((VariableElement) element);
+			if(field == null) {
+				error(element, "Settings must be boolean, char, int, long, double, String or an enum");
+				valid = false;
+				continue;
+			}
+			fields.add(field);
+		}
+		if(!valid) return;
+
+		String pkg = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+		String name = type.getQualifiedName().toString();
+		String codec = type.getSimpleName() + "Codec";
+		try(PrintWriter out = new PrintWriter(processingEnv.getFiler().createSourceFile(pkg.isEmpty() ? codec : pkg + "." + codec, type).openWriter())) {
+			write(out, pkg, name, codec, section, file, fields);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static boolean hasSetting(Element element) {
+		for(AnnotationMirror mirror : element.getAnnotationMirrors()) {
+			if(((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(SETTING)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return how to read and write the field, or {@code null} if it isn't a type settings can be
+	 */
+	private Field field(VariableElement element) {
+		String name = element.getSimpleName().toString();
+		TypeMirror type = element.asType();
+		return switch(type.getKind()) {
+			case BOOLEAN -> new Field(name, "SettingsCodec.parseBoolean(value)", "String.valueOf(%s)", "Boolean");
+			case CHAR -> new Field(name, "SettingsCodec.parseChar(value)", "%s", "Char");
+			case INT -> new Field(name, "Integer.parseInt(value.trim())", "String.valueOf(%s)", "Int");
+			case LONG -> new Field(name, "Long.parseLong(value.trim())", "String.valueOf(%s)", "Long");
+			case DOUBLE -> new Field(name, "Double.parseDouble(value.trim())", "String.valueOf(%s)", "Double");
+			case DECLARED -> {
+				TypeElement declared = (TypeElement) ((DeclaredType) type).asElement();
+				String qualified = declared.getQualifiedName().toString();
+				if(qualified.equals("java.lang.String")) {
+					yield new Field(name, "value", "%s", "UTF");
+				} else if(declared.getKind() == ElementKind.ENUM) {
+					yield new Field(name, qualified + ".valueOf(value.trim())", "%s.name()", qualified);
+				}
+				yield null;
+			}
+			default -> null;
+		};
+	}
+
+	/**
+	 * @param parse reads the setting from {@code value}
+	 * @param format turns the setting into what's appended to the file
+	 * @param binary the {@code DataInput}/{@code DataOutput} method suffix, or for enums their type, written by name
+	 */
+	private record Field(String name, String parse, String format, String binary) {
+		String key() {
+			return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+		}
+
+		boolean isEnum() {
+			return binary.contains(".");
+		}
+	}
+
+	private static void write(PrintWriter out, String pkg, String type, String codec, String section, String file, List<Field> fields) {
+		if(!pkg.isEmpty()) {
+			out.println("package " + pkg + ";");
+			out.println();
+		}
+		out.println("import dev.rdh.games.SettingsCodec;");
+		out.println();
+		out.println("import java.io.DataInput;");
+		out.println("import java.io.DataOutput;");
+		out.println("import java.io.IOException;");
+		out.println("import java.io.InvalidObjectException;");
+		out.println("import javax.annotation.processing.Generated;");
+		out.println();
+		out.println("@Generated(\"" + SettingsProcessor.class.getName() + "\")");
+		out.println("final class " + codec + " implements SettingsCodec<" + type + "> {");
+
+		out.println("\t@Override");
+		out.println("\tpublic String section() {");
+		out.println("\t\treturn " + literal(section) + ";");
+		out.println("\t}");
+		out.println();
+		out.println("\t@Override");
+		out.println("\tpublic String file() {");
+		out.println("\t\treturn " + literal(file) + ";");
+		out.println("\t}");
+		out.println();
+
+		out.println("\t@Override");
+		out.println("\tpublic boolean set(" + type + " settings, String key, String value) {");
+		out.println("\t\tswitch(key) {");
+		for(Field field : fields) {
+			String keys = field.key().equals(field.name()) ? literal(field.name()) : literal(field.key()) + ", " + literal(field.name());
+			out.println("\t\t\tcase " + keys + " -> settings." + field.name() + " = " + field.parse() + ";");
+		}
+		out.println("\t\t\tdefault -> {");
+		out.println("\t\t\t\treturn false;");
+		out.println("\t\t\t}");
+		out.println("\t\t}");
+		out.println("\t\treturn true;");
+		out.println("\t}");
+		out.println();
+
+		out.println("\t@Override");
+		out.println("\tpublic void copy(" + type + " from, " + type + " to) {");
+		for(Field field : fields) {
+			out.println("\t\tto." + field.name() + " = from." + field.name() + ";");
+		}
+		out.println("\t}");
+		out.println();
+
+		out.println("\t@Override");
+		out.println("\tpublic void write(" + type + " settings, Appendable out) throws IOException {");
+		for(Field field : fields) {
+			out.println("\t\tout.append(" + literal(field.key() + "=") + ").append("
+					+ String.format(field.format(), "settings." + field.name()) + ").append('\\n');");
+		}
+		out.println("\t}");
+		out.println();
+
+		out.println("\t@Override");
+		out.println("\tpublic void write(" + type + " settings, DataOutput out) throws IOException {");
+		out.println("\t\tout.writeShort(" + fields.size() + ");");
+		for(Field field : fields) {
+			out.println("\t\tout.writeUTF(" + literal(field.name()) + ");");
+			out.println("\t\tout." + (field.isEnum() ? "writeUTF(settings." + field.name() + ".name())" : "write" + field.binary() + "(settings." + field.name() + ")") + ";");
+		}
+		out.println("\t}");
+		out.println();
+
+		out.println("\t@Override");
+		out.println("\tpublic void read(" + type + " settings, DataInput in) throws IOException {");
+		out.println("\t\tint count = in.readUnsignedShort();");
+		out.println("\t\tfor(int i = 0; i < count; i++) {");
+		out.println("\t\t\tString key = in.readUTF();");
+		out.println("\t\t\tswitch(key) {");
+		for(Field field : fields) {
+			String read = field.isEnum() ? field.binary() + ".valueOf(in.readUTF())" : "in.read" + field.binary() + "()";
+			out.println("\t\t\t\tcase " + literal(field.name()) + " -> settings." + field.name() + " = " + read + ";");
+		}
+		out.println("\t\t\t\tdefault -> throw new InvalidObjectException(\"Unknown setting: \" + key);");
+		out.println("\t\t\t}");
+		out.println("\t\t}");
+		out.println("\t}");
+		out.println("}");
+	}
+
+	private static String literal(String s) {
+		StringBuilder sb = new StringBuilder("\"");
+		for(int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			switch(c) {
+				case '"' -> sb.append("\\\"");
+				case '\\' -> sb.append("\\\\");
+				case '\n' -> sb.append("\\n");
+				default -> sb.append(c);
+			}
+		}
+		return sb.append('"').toString();
+	}
+
+	private void error(Element element, String message) {
+		processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+	}
+}
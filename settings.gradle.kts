@@ -2,5 +2,7 @@ rootProject.name = "Text Games"
 
 include("minesweeper")
 include("common")
+include("processor")
 include("frogger")
 include("twenty48")
+include("benchmarks")
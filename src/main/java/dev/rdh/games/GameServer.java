@@ -0,0 +1,155 @@
+package dev.rdh.games;
+
+import dev.rdh.games.util.Threads;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Serves the game menu to any number of telnet clients at once, each with its own {@link Console} on its own thread.
+ * <p>
+ * The address is either a port, listened on at the loopback address only, or the path of a Unix domain socket to create.
+ * Sessions run on virtual threads where the runtime has them, so idle sessions cost little more than their buffers.
+ */
+public class GameServer {
+	public static final String DEFAULT_ADDRESS = "2323";
+
+	private static final int BACKLOG = 256;
+
+	/**
+	 * the file type bits of a {@code unix:mode}, and their value for a socket
+	 */
+	private static final int S_IFMT = 0170000, S_IFSOCK = 0140000;
+
+	public static void serve(String address) {
+		ExecutorService sessions = Threads.newPerTaskExecutor("Game Session");
+		try(ServerSocketChannel server = open(address)) {
+			System.out.println("Serving games on " + server.getLocalAddress()
+					+ (Threads.hasVirtualThreads() ? " using virtual threads" : ""));
+
+			while(true) {
+				SocketChannel client = server.accept();
+				sessions.execute(() -> session(client));
+			}
+		} catch (IOException e) {
+			e.printStackTrace(System.err);
+		} finally {
+			sessions.shutdownNow();
+		}
+	}
+
+	private static ServerSocketChannel open(String address) throws IOException {
+		if(!address.isEmpty() && address.chars().allMatch(Character::isDigit)) {
+			ServerSocketChannel server = ServerSocketChannel.open();
+			server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(address)), BACKLOG);
+			return server;
+		}
+
+		Path path = Path.of(address);
+		if(isStaleSocket(path)) {
+			Files.delete(path);
+		}
+		ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+		server.bind(UnixDomainSocketAddress.of(path), BACKLOG);
+		path.toFile().deleteOnExit();
+		return server;
+	}
+
+	/**
+	 * @return whether {@code path} is a socket nothing listens on, left behind by a server that was killed before it could delete it
+	 */
+	private static boolean isStaleSocket(Path path) throws IOException {
+		try {
+			int mode = (int) Files.getAttribute(path, "unix:mode", LinkOption.NOFOLLOW_LINKS);
+			if((mode & S_IFMT) != S_IFSOCK) return false;
+		} catch (NoSuchFileException | UnsupportedOperationException e) {
+			return false;
+		}
+
+		try {
+			// another server is running on it
+			SocketChannel.open(UnixDomainSocketAddress.of(path)).close();
+			return false;
+		} catch (ConnectException e) {
+			return true;
+		}
+	}
+
+	private static void session(SocketChannel channel) {
+		try(channel) {
+			if(channel.getRemoteAddress() instanceof InetSocketAddress) {
+				channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+			}
+
+			// the terminal's commands go out as they are, everything printed is encoded for telnet
+			OutputStream raw = new ChannelOutputStream(channel);
+			InputStream in = new TelnetInputStream(new BufferedInputStream(new ChannelInputStream(channel)));
+			try(Console console = new Console(in, new TelnetOutputStream(raw), new TelnetTerminal(raw))) {
+				Main.menu(console);
+				console.clearScreen();
+			}
+		} catch (IOException | UncheckedIOException ignored) {
+			// the client went away
+		}
+	}
+
+	/**
+	 * Reads straight from the channel. {@link java.nio.channels.Channels#newInputStream} would hold a lock that blocks writes while it waits.
+	 */
+	private static final class ChannelInputStream extends InputStream {
+		private final SocketChannel channel;
+
+		private ChannelInputStream(SocketChannel channel) {
+			this.channel = channel;
+		}
+
+		@Override
+		public int read() throws IOException {
+			byte[] b = new byte[1];
+			return read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			return len == 0 ? 0 : channel.read(ByteBuffer.wrap(b, off, len));
+		}
+	}
+
+	private static final class ChannelOutputStream extends OutputStream {
+		private final SocketChannel channel;
+
+		private ChannelOutputStream(SocketChannel channel) {
+			this.channel = channel;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] { (byte) b }, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			ByteBuffer buffer = ByteBuffer.wrap(b, off, len);
+			while(buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		}
+	}
+}
@@ -2,30 +2,74 @@ package dev.rdh.games;
 
 import dev.rdh.frogger.Frogger;
 import dev.rdh.minesweeper.Minesweeper;
+import dev.rdh.twenty48.Twenty48;
 
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Consumer;
 
 public class Main {
-	private static final Map<String, Consumer<String[]>> GAMES = Map.of(
-			"Minesweeper", Minesweeper::main,
-			"Frogger", Frogger::main
+	private static final Map<String, Consumer<Console>> GAMES = Map.of(
+			"Minesweeper", Minesweeper::play,
+			"Frogger", Frogger::play,
+			"2048", Twenty48::play
 	);
 
-	public static void main(String[] args) {
-		while(true) {
-			List<String> gameNames = GAMES.keySet().stream().toList();
-			Console console = new Console();
-			SelectionModal sm = SelectionModal.of("Choose a game:",
-					gameNames,
-					"Exit");
+	/**
+	 * With {@code --serve [port or socket path]}, serves the menu to telnet clients instead, see {@link GameServer}.
+	 * <p>
+	 * With {@code --replay <file> [--fast]}, plays back a game recorded with {@code -Dgames.replays=<directory>},
+	 * or with {@code --fast} runs through it without drawing and prints how it ended.
+	 */
+	public static void main(String[] args) throws IOException {
+		if(args.length > 0 && args[0].equals("--serve")) {
+			GameServer.serve(args.length > 1 ? args[1] : GameServer.DEFAULT_ADDRESS);
+			return;
+		}
+		if(args.length > 1 && args[0].equals("--replay")) {
+			replay(Path.of(args[1]), args.length > 2 && args[2].equals("--fast"));
+			return;
+		}
+
+		// kept open while games run so their consoles share its raw mode instead of switching again
+		try(Console console = new Console()) {
+			menu(console);
+		}
+	}
+
+	private static void replay(Path path, boolean fast) throws IOException {
+		Replay replay = Replay.read(path);
+		long start = System.nanoTime();
+		String result;
+		try(Console console = fast ? Console.headless(replay.input(false))
+				: new Console(replay.input(true), new FileOutputStream(FileDescriptor.out), Terminal.system())) {
+			result = switch(replay.getGame()) {
+				case Minesweeper.REPLAY_NAME -> Minesweeper.replay(console, replay);
+				case Twenty48.REPLAY_NAME -> Twenty48.replay(console, replay);
+				default -> throw new IllegalArgumentException("Can't replay " + replay.getGame());
+			};
+		}
+		System.out.printf("%s: %s (%.1fms)%n", replay.getGame(), result, (System.nanoTime() - start) / 1e6);
+	}
+
+	/**
+	 * Lets the player pick games until they exit or the input ends.
+	 */
+	public static void menu(Console console) {
+		List<String> gameNames = GAMES.keySet().stream().toList();
+		SelectionModal sm = SelectionModal.of("Choose a game:",
+				gameNames,
+				"Exit");
+		while(!console.isInputEnded()) {
 			int selection = sm.displayOn(console);
-			console.close();
-			if(selection == gameNames.size()) {
+			if(selection == gameNames.size() || console.isInputEnded()) {
 				break;
 			}
-			GAMES.get(gameNames.get(selection)).accept(args);
+			GAMES.get(gameNames.get(selection)).accept(console);
 		}
 	}
 }
@@ -0,0 +1,229 @@
+package dev.rdh.twenty48;
+
+import java.util.SplittableRandom;
+
+/**
+ * A 2048 board packed into a {@code long}, four bits per tile.
+ * <p>
+ * Each tile holds its exponent, so 0 is empty, 1 is a 2, 2 is a 4 and so on.
+ * The tile at {@code (x, y)} is the nibble at bit {@code 4 * (4 * y + x)}, so each row is one 16-bit chunk with {@code x = 0} lowest.
+ * Rows slide through lookup tables indexed by the whole row, and columns slide by transposing the board first.
+ * <p>
+ * A nibble can't hold more than a 32768 tile, so two of them never merge.
+ */
+public final class Bitboard {
+	private Bitboard() {}
+
+	public static final int MAX_EXPONENT = 15;
+
+	private static final long ROW_MASK = 0xFFFFL;
+
+	/**
+	 * the row after sliding towards {@code x = 0}, indexed by the row before
+	 */
+	private static final short[] LEFT = new short[1 << 16];
+
+	/**
+	 * the row after sliding towards {@code x = 3}, indexed by the row before
+	 */
+	private static final short[] RIGHT = new short[1 << 16];
+
+	/**
+	 * what sliding the row either way does: the points scored, which is the sum of the tiles made by merging,
+	 * in the low 24 bits and the number of merges above them
+	 */
+	private static final int[] MERGES = new int[1 << 16];
+	private static final int SCORE_BITS = 24;
+
+	static {
+		int[] tiles = new int[4];
+		for(int row = 0; row < 1 << 16; row++) {
+			for(int i = 0; i < 4; i++) {
+				tiles[i] = (row >>> (4 * i)) & 0xF;
+			}
+			int[] slid = new int[4];
+			int score = slide(tiles, slid);
+			int merges = countTiles(tiles) - countTiles(slid);
+			MERGES[row] = score | merges << SCORE_BITS;
+			LEFT[row] = (short) pack(slid);
+
+			int reversed = reverse(row);
+			RIGHT[reversed] = (short) reverse(LEFT[row] & 0xFFFF);
+		}
+	}
+
+	/**
+	 * slides and merges tiles towards index 0, each tile merging at most once
+	 *
+	 * @return the points scored
+	 */
+	private static int slide(int[] tiles, int[] result) {
+		int to = 0, score = 0;
+		boolean mergeable = false;
+		for(int tile : tiles) {
+			if(tile == 0) continue;
+			if(mergeable && result[to - 1] == tile && tile < MAX_EXPONENT) {
+				result[to - 1]++;
+				score += 1 << (tile + 1);
+				mergeable = false;
+			} else {
+				result[to++] = tile;
+				mergeable = true;
+			}
+		}
+		return score;
+	}
+
+	private static int countTiles(int[] tiles) {
+		int count = 0;
+		for(int tile : tiles) {
+			if(tile != 0) count++;
+		}
+		return count;
+	}
+
+	private static int pack(int[] tiles) {
+		return tiles[0] | tiles[1] << 4 | tiles[2] << 8 | tiles[3] << 12;
+	}
+
+	private static int reverse(int row) {
+		return (row >>> 12) | ((row >>> 4) & 0xF0) | ((row << 4) & 0xF00) | ((row << 12) & 0xF000);
+	}
+
+	/**
+	 * @return the exponent of the tile at {@code (x, y)}, or 0 if it is empty
+	 */
+	public static int get(long board, int x, int y) {
+		return (int) (board >>> (4 * (4 * y + x))) & 0xF;
+	}
+
+	public static long set(long board, int x, int y, int exponent) {
+		int shift = 4 * (4 * y + x);
+		return (board & ~(0xFL << shift)) | ((long) exponent << shift);
+	}
+
+	/**
+	 * swaps rows and columns, so that {@code (x, y)} ends up at {@code (y, x)}
+	 */
+	public static long transpose(long board) {
+		long a1 = board & 0xF0F0_0F0F_F0F0_0F0FL;
+		long a2 = board & 0x0000_F0F0_0000_F0F0L;
+		long a3 = board & 0x0F0F_0000_0F0F_0000L;
+		long a = a1 | (a2 << 12) | (a3 >>> 12);
+		long b1 = a & 0xFF00_FF00_00FF_00FFL;
+		long b2 = a & 0x00FF_00FF_0000_0000L;
+		long b3 = a & 0x0000_0000_FF00_FF00L;
+		return b1 | (b2 >>> 24) | (b3 << 24);
+	}
+
+	public static long move(long board, Direction direction) {
+		return switch(direction) {
+			case LEFT -> slideRows(board, LEFT);
+			case RIGHT -> slideRows(board, RIGHT);
+			case UP -> transpose(slideRows(transpose(board), LEFT));
+			case DOWN -> transpose(slideRows(transpose(board), RIGHT));
+		};
+	}
+
+	/**
+	 * @return the points scored by the move, the same for both directions along an axis
+	 */
+	public static int moveScore(long board, Direction direction) {
+		return moveEffect(board, direction) & ((1 << SCORE_BITS) - 1);
+	}
+
+	/**
+	 * @return the points scored by the move in the low 24 bits, and the number of tiles merged away above them
+	 */
+	public static int moveEffect(long board, Direction direction) {
+		if(direction == Direction.UP || direction == Direction.DOWN) {
+			board = transpose(board);
+		}
+		// the score of four rows fits in 19 bits, so the fields can't carry into each other
+		return MERGES[(int) (board & ROW_MASK)] + MERGES[(int) ((board >>> 16) & ROW_MASK)]
+				+ MERGES[(int) ((board >>> 32) & ROW_MASK)] + MERGES[(int) (board >>> 48)];
+	}
+
+	public static int scoreOf(int effect) {
+		return effect & ((1 << SCORE_BITS) - 1);
+	}
+
+	public static int mergesOf(int effect) {
+		return effect >>> SCORE_BITS;
+	}
+
+	/**
+	 * @return whether any move changes the board
+	 */
+	public static boolean canMove(long board) {
+		if(countEmpty(board) > 0) {
+			return board != 0;
+		}
+		// on a full board, a move along an axis does something only if two neighbours on that axis can merge
+		long transposed = transpose(board);
+		return slideRows(board, LEFT) != board || slideRows(transposed, LEFT) != transposed;
+	}
+
+	private static long slideRows(long board, short[] table) {
+		return (table[(int) (board & ROW_MASK)] & ROW_MASK)
+				| (table[(int) ((board >>> 16) & ROW_MASK)] & ROW_MASK) << 16
+				| (table[(int) ((board >>> 32) & ROW_MASK)] & ROW_MASK) << 32
+				| (table[(int) (board >>> 48)] & ROW_MASK) << 48;
+	}
+
+	public static int countEmpty(long board) {
+		return Long.bitCount(emptyMask(board));
+	}
+
+	/**
+	 * @return the lowest bit of each empty tile set, and nothing else
+	 */
+	private static long emptyMask(long board) {
+		// fold each nibble onto its low bit, which is then set if the tile is non-zero
+		long occupied = board | (board >>> 2);
+		occupied |= occupied >>> 1;
+		return ~occupied & 0x1111_1111_1111_1111L;
+	}
+
+	/**
+	 * @return the board with a tile of {@code exponent} in its {@code index}th empty cell, counting from {@code (0, 0)} along rows
+	 */
+	public static long placeInEmpty(long board, int index, int exponent) {
+		long empty = emptyMask(board);
+		for(int i = 0; i < index; i++) {
+			empty &= empty - 1;
+		}
+		if(empty == 0) {
+			throw new IllegalArgumentException("Board has no empty cell " + index);
+		}
+		return board | ((long) exponent << Long.numberOfTrailingZeros(empty));
+	}
+
+	/**
+	 * @return the board with a new tile in a random empty cell, a 4 with {@link Board#FOUR_CHANCE} and otherwise a 2
+	 */
+	public static long spawn(long board, SplittableRandom random) {
+		return spawn(board, countEmpty(board), random);
+	}
+
+	/**
+	 * @param empty how many empty cells the board has
+	 */
+	public static long spawn(long board, int empty, SplittableRandom random) {
+		if(empty == 0) {
+			return board;
+		}
+		return placeInEmpty(board, random.nextInt(empty), random.nextDouble() < Board.FOUR_CHANCE ? 2 : 1);
+	}
+
+	/**
+	 * @return the exponent of the highest tile
+	 */
+	public static int maxExponent(long board) {
+		int max = 0;
+		for(; board != 0; board >>>= 4) {
+			max = Math.max(max, (int) (board & 0xF));
+		}
+		return max;
+	}
+}
@@ -1,234 +1,183 @@
 package dev.rdh.twenty48;
 
-import dev.rdh.games.Console;
+import dev.rdh.games.Screen;
 
-import java.awt.Color;
-import java.util.HashMap;
-import java.util.Map;
+import lombok.Getter;
+
+import java.nio.ByteBuffer;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class Board {
-	private final int[][] board = new int[4][4];
-
-	public static final Map<Integer, Color> COLORS = new HashMap<>();
-	static {
-		COLORS.put(0, new Color(0xCDC1B4));
-		COLORS.put(2, new Color(0xEEE4DA));
-		COLORS.put(4, new Color(0xEDE0C8));
-		COLORS.put(8, new Color(0xF2B179));
-		COLORS.put(16, new Color(0xF59563));
-		COLORS.put(32, new Color(0xF67C5F));
-		COLORS.put(64, new Color(0xF65E3B));
-		COLORS.put(128, new Color(0xEDCF72));
-		COLORS.put(256, new Color(0xEDCC61));
-		COLORS.put(512, new Color(0xEDC850));
-		COLORS.put(1024, new Color(0xEDC53F));
-		COLORS.put(2048, new Color(0xEDC22E));
-	}
+	/**
+	 * the chance that a new tile is a 4 rather than a 2
+	 */
+	public static final double FOUR_CHANCE = 0.1;
+
+	/**
+	 * see {@link Bitboard}
+	 */
+	private long board;
+
+	private final SplittableRandom random;
+
+	@Getter
+	private int emptyCells = 16;
+
+	@Getter
+	private int score;
+
+	@Getter
+	private int moves;
 
 	public Board() {
+		this(ThreadLocalRandom.current().nextLong());
+	}
+
+	/**
+	 * @param seed decides where new tiles appear and what they are, given the same moves
+	 */
+	public Board(long seed) {
+		this(new SplittableRandom(seed));
+	}
+
+	public Board(SplittableRandom random) {
+		this.random = random;
 		//initialize board with two random cells
 		addRandomCell();
 		addRandomCell();
 	}
 
-	public void addRandomCell() {
-		//find empty cells
-		int emptyCells = 0;
-		for(int y = 0; y < 4; y++) {
-			for(int x = 0; x < 4; x++) {
-				if(board[y][x] == 0) {
-					emptyCells++;
-				}
-			}
-		}
-		if(emptyCells == 0) {
-			return;
-		}
-		//pick a random empty cell
-		int cell = (int)(Math.random() * emptyCells);
-		for(int y = 0; y < 4; y++) {
-			for(int x = 0; x < 4; x++) {
-				if(board[y][x] != 0) continue;
+	/**
+	 * @return the tiles as in {@link Bitboard}, the score and the number of moves, to be resumed by {@link #fromSnapshot}
+	 */
+	public ByteBuffer snapshot() {
+		return ByteBuffer.allocate(16).putLong(board).putInt(score).putInt(moves).flip();
+	}
 
-				if(cell == 0) {
-					//add a 2 or 4 to the cell
-					board[y][x] = Math.random() < 0.9 ? 2 : 4;
-					return;
-				}
-				cell--;
-			}
+	/**
+	 * @param in a snapshot from {@link #snapshot()}, read from its position on
+	 * @param random where the tiles spawned from now on come from
+	 * @throws IllegalArgumentException if the score or moves couldn't have been saved
+	 */
+	public static Board fromSnapshot(ByteBuffer in, SplittableRandom random) {
+		Board board = new Board(random, in.getLong());
+		board.score = in.getInt();
+		board.moves = in.getInt();
+		if(board.score < 0 || board.moves < 0) {
+			throw new IllegalArgumentException("Bad score or moves in snapshot: " + board.score + ", " + board.moves);
 		}
+		return board;
 	}
 
-	public void moveUp() {
-		boolean moved = false;
-		for(int x = 0; x < 4; x++) {
-			for(int y = 1; y < 4; y++) {
-				if(board[y][x] == 0) continue;
-
-				int y2 = y;
-				while(y2 > 0 && (board[y2 - 1][x] == 0 || board[y2 - 1][x] == board[y][x])) {
-					y2--;
-				}
+	private Board(SplittableRandom random, long bits) {
+		this.random = random;
+		this.board = bits;
+		this.emptyCells = Bitboard.countEmpty(bits);
+	}
 
-				if(board[y2][x] == board[y][x]) {
-					board[y2][x] *= 2;
-					board[y][x] = 0;
-					moved = true;
-				}
+	public void addRandomCell() {
+		if(emptyCells == 0) return;
+		board = Bitboard.spawn(board, emptyCells--, random);
+	}
 
-				if(y2 == y) continue;
-				if(board[y2][x] == 0) {
-					board[y2][x] = board[y][x];
-					board[y][x] = 0;
-					moved = true;
-				}
-			}
-		}
-		if(moved) {
-			addRandomCell();
+	/**
+	 * Slides every tile in the direction, and adds a random tile if anything moved.
+	 *
+	 * @return whether anything moved
+	 */
+	public boolean move(Direction direction) {
+		long moved = Bitboard.move(board, direction);
+		if(moved == board) {
+			return false;
 		}
+		int effect = Bitboard.moveEffect(board, direction);
+		score += Bitboard.scoreOf(effect);
+		emptyCells += Bitboard.mergesOf(effect);
+		moves++;
+
+		board = moved;
+		addRandomCell();
+		return true;
 	}
 
-	public void moveDown() {
-		boolean moved = false;
-		for(int x = 0; x < 4; x++) {
-			for(int y = 2; y >= 0; y--) {
-				if(board[y][x] == 0) continue;
-
-				int y2 = y;
-				while(y2 < 3 && (board[y2 + 1][x] == 0 || board[y2 + 1][x] == board[y][x])) {
-					y2++;
-				}
+	public void moveUp() {
+		move(Direction.UP);
+	}
 
-				if(board[y2][x] == board[y][x]) {
-					board[y2][x] *= 2;
-					board[y][x] = 0;
-					moved = true;
-				}
-				if(y2 == y) continue;
-				if(board[y2][x] == 0) {
-					board[y2][x] = board[y][x];
-					board[y][x] = 0;
-					moved = true;
-				}
-			}
-		}
-		if(moved) {
-			addRandomCell();
-		}
+	public void moveDown() {
+		move(Direction.DOWN);
 	}
 
 	public void moveLeft() {
-		boolean moved = false;
-		for(int y = 0; y < 4; y++) {
-			for(int x = 1; x < 4; x++) {
-				if(board[y][x] == 0) continue;
-
-				int x2 = x;
-				while(x2 > 0 && board[y][x2 - 1] == 0) {
-					x2--;
-				}
-
-				if(board[y][x2] == board[y][x]) {
-					board[y][x2] *= 2;
-					board[y][x] = 0;
-					moved = true;
-				}
-				if(x2 == x) continue;
-				if(board[y][x2] == 0) {
-					board[y][x2] = board[y][x];
-					board[y][x] = 0;
-					moved = true;
-				}
-			}
-		}
-		if(moved) {
-			addRandomCell();
-		}
+		move(Direction.LEFT);
 	}
 
 	public void moveRight() {
-		boolean moved = false;
-		for(int y = 0; y < 4; y++) {
-			for(int x = 2; x >= 0; x--) {
-				if(board[y][x] == 0) continue;
+		move(Direction.RIGHT);
+	}
 
-				int x2 = x;
-				while(x2 < 3 && (board[y][x2 + 1] == 0 || board[y][x2 + 1] == board[y][x])) {
-					x2++;
-				}
+	/**
+	 * @return the value of the tile at {@code (x, y)}, or 0 if it is empty
+	 */
+	public int getTile(int x, int y) {
+		int exponent = Bitboard.get(board, x, y);
+		return exponent == 0 ? 0 : 1 << exponent;
+	}
 
-				if(board[y][x2] == board[y][x]) {
-					board[y][x2] *= 2;
-					board[y][x] = 0;
-					moved = true;
-				}
-				if(x2 == x) continue;
-				if(board[y][x2] == 0) {
-					board[y][x2] = board[y][x];
-					board[y][x] = 0;
-					moved = true;
-				}
-			}
-		}
-		if(moved) {
-			addRandomCell();
-		}
+	/**
+	 * @return the board packed as in {@link Bitboard}
+	 */
+	public long getBits() {
+		return board;
 	}
 
 	public boolean isFull() {
-		for(int y = 0; y < 4; y++) {
-			for(int x = 0; x < 4; x++) {
-				if(board[y][x] == 0) {
-					return false;
-				}
-			}
-		}
-		return true;
+		return emptyCells == 0;
 	}
 
-	public void display(Console console) {
-		//print out grid: 4x4 cells of 7x3 characters each
-
-		Color borderColor = new Color(0xBBADA0);
-		console.setBackgroundColor(borderColor);
-		console.println(" ".repeat(38));
-
-		console.setForegroundColor(new Color(0x776E65));
-		for(int y = 0; y < 4 * 3; y++) {
-			for(int x = 0; x < 4; x++) {
-				int cellValue = board[y / 3][x];
-				Color color = COLORS.get(cellValue);
-				console.setBackgroundColor(borderColor);
-				console.print("  ");
+	/**
+	 * @return whether any move is left, which is false once the game is over
+	 */
+	public boolean canMove() {
+		return emptyCells > 0 || Bitboard.canMove(board);
+	}
 
-				console.setBackgroundColor(color);
-				if(y % 3 == 1) { // middle row
-					console.print(cellValue == 0 ? "       " : center7(cellValue));
-				} else {
-					console.print("       ");
-				}
+	public static final int WIDTH = 38, HEIGHT = 17;
+
+	private static final int BORDER = Screen.rgb(0xBBADA0);
+	private static final int TEXT = Screen.rgb(0x776E65);
+	private static final char[] SCORE_LABEL = "Score: ".toCharArray();
+
+	/**
+	 * room for the digits of any score, filled from the end
+	 */
+	private final char[] scoreDigits = new char[10];
+
+	public void draw(Screen screen) {
+		//draw grid: 4x4 tiles with 2 columns or 1 row of border around each
+		screen.fill(0, 0, WIDTH, ' ', TEXT, BORDER);
+		int col = screen.print(0, 2, SCORE_LABEL, TEXT, BORDER);
+		int start = scoreDigits.length, value = score;
+		do {
+			scoreDigits[--start] = (char) ('0' + value % 10);
+			value /= 10;
+		} while(value > 0);
+		for(int i = start; i < scoreDigits.length; i++) {
+			screen.set(0, col++, scoreDigits[i], TEXT, BORDER);
+		}
 
-				if(x == 3) {
-					console.setBackgroundColor(borderColor);
-					console.print("  ");
+		for(int y = 0; y < 4; y++) {
+			for(int line = 0; line < TileCache.HEIGHT; line++) {
+				int row = 1 + y * (TileCache.HEIGHT + 1) + line;
+				screen.fill(row, 0, WIDTH, ' ', TEXT, BORDER);
+				for(int x = 0; x < 4; x++) {
+					int exponent = Bitboard.get(board, x, y);
+					screen.print(row, 2 + x * (TileCache.WIDTH + 2), TileCache.row(exponent, line),
+							TileCache.foreground(exponent), TileCache.background(exponent));
 				}
 			}
-			console.println();
-			if(y % 3 == 2) {
-				console.setBackgroundColor(borderColor);
-				console.println(" ".repeat(38));
-			}
+			screen.fill((y + 1) * (TileCache.HEIGHT + 1), 0, WIDTH, ' ', TEXT, BORDER);
 		}
-
-		console.resetBackgroundColor();
-		console.resetForegroundColor();
-	}
-
-	private String center7(int value) {
-		String str = Integer.toString(value);
-		int padding = (7 - str.length()) / 2;
-		return " ".repeat(padding) + str + " ".repeat(7 - padding - str.length());
 	}
 }
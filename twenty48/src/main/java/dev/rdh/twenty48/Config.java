@@ -0,0 +1,62 @@
+package dev.rdh.twenty48;
+
+import dev.rdh.games.ConfigService;
+import dev.rdh.games.Console;
+import dev.rdh.games.Settings;
+import dev.rdh.games.Settings.Setting;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+@Settings(section = "2048", file = "2048.ini")
+public class Config {
+	private static final ConfigCodec CODEC = new ConfigCodec();
+	private static final ConfigService<Config> SERVICE = ConfigService.of(CODEC, Config::new);
+
+	@Setting public boolean useWASD = true;
+	@Setting public char hint = 'h';
+	@Setting public char autoplay = 'p';
+	@Setting public char quit = 'q';
+
+	/**
+	 * how long the AI may think about each move, which {@code +} and {@code -} double and halve in game
+	 */
+	@Setting public long aiMillis = Long.getLong("twenty48.ai.millis", 100);
+
+	private Config() {}
+
+	/**
+	 * @return a copy of the settings as last saved, to read or change and {@link #save()}
+	 */
+	public static Config load() {
+		return SERVICE.get();
+	}
+
+	/**
+	 * Tells the player what was wrong with the file when it was last loaded, such as settings this version doesn't have.
+	 */
+	public static void showProblems(Console console) {
+		SERVICE.showProblems(console);
+	}
+
+	public void save() {
+		SERVICE.save(this);
+	}
+
+	/**
+	 * Writes every setting as its name and value, for {@link #read(DataInput)}.
+	 */
+	public void write(DataOutput out) throws IOException {
+		CODEC.write(this, out);
+	}
+
+	/**
+	 * Reads settings written by {@link #write(DataOutput)}, leaving any it doesn't have at their defaults.
+	 */
+	public static Config read(DataInput in) throws IOException {
+		Config config = new Config();
+		CODEC.read(config, in);
+		return config;
+	}
+}
@@ -0,0 +1,10 @@
+package dev.rdh.twenty48;
+
+public enum Direction {
+	UP, DOWN, LEFT, RIGHT;
+
+	/**
+	 * {@link #values()} without the copy
+	 */
+	static final Direction[] VALUES = values();
+}
@@ -0,0 +1,288 @@
+package dev.rdh.twenty48;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.Serial;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Picks moves by expectimax search: the player takes the best move, and each empty cell is equally likely to get a new tile,
+ * which is a 2 or a 4 as often as {@link Board#addRandomCell()} makes them.
+ * <p>
+ * The search deepens one move at a time until the time budget runs out, keeping the choice from the deepest search that finished.
+ * Each root move is searched on its own {@link ForkJoinPool#commonPool() common pool} worker with its own transposition cache,
+ * or one after the other on the calling thread when whatever calls it is already running on every core.
+ * The searches, and their caches, are kept from one move to the next, so boards the last move already searched deep enough
+ * aren't searched again, and an instance picks one move at a time.
+ * Branches whose chance of happening falls below {@link #PROBABILITY_CUTOFF} are judged by the heuristic instead of searched further.
+ */
+public class Expectimax {
+	private static final int MAX_DEPTH = 12;
+	private static final double PROBABILITY_CUTOFF = 1e-4;
+
+	/**
+	 * nodes between checks of the clock
+	 */
+	private static final int CLOCK_INTERVAL = 1024;
+
+	/**
+	 * heuristic score of each row, and column once transposed, indexed by the row
+	 */
+	private static final float[] HEURISTIC = new float[1 << 16];
+
+	static {
+		for(int row = 0; row < 1 << 16; row++) {
+			int[] line = { row & 0xF, (row >>> 4) & 0xF, (row >>> 8) & 0xF, (row >>> 12) & 0xF };
+
+			double sum = 0;
+			int empty = 0, merges = 0;
+			int previous = 0, counter = 0;
+			for(int rank : line) {
+				sum += Math.pow(rank, 3.5);
+				if(rank == 0) {
+					empty++;
+				} else {
+					if(previous == rank) {
+						counter++;
+					} else if(counter > 0) {
+						merges += 1 + counter;
+						counter = 0;
+					}
+					previous = rank;
+				}
+			}
+			if(counter > 0) {
+				merges += 1 + counter;
+			}
+
+			double towardsStart = 0, towardsEnd = 0;
+			for(int i = 1; i < 4; i++) {
+				if(line[i - 1] > line[i]) {
+					towardsStart += Math.pow(line[i - 1], 4) - Math.pow(line[i], 4);
+				} else {
+					towardsEnd += Math.pow(line[i], 4) - Math.pow(line[i - 1], 4);
+				}
+			}
+
+			HEURISTIC[row] = (float) (200_000 + 270 * empty + 700 * merges - 47 * Math.min(towardsStart, towardsEnd) - 11 * sum);
+		}
+	}
+
+	/**
+	 * how long each move may take to pick
+	 */
+	@Getter
+	@Setter
+	private long budgetMillis;
+
+	/**
+	 * whether the root moves are searched on the common pool rather than the calling thread
+	 */
+	private final boolean parallel;
+
+	/**
+	 * the search for each direction, made the first time the root can move that way
+	 */
+	private final Search[] searches = new Search[Direction.VALUES.length];
+
+	public Expectimax(long budgetMillis) {
+		this(budgetMillis, true);
+	}
+
+	public Expectimax(long budgetMillis, boolean parallel) {
+		this.budgetMillis = budgetMillis;
+		this.parallel = parallel;
+	}
+
+	/**
+	 * @return the best move, or {@code null} if nothing can move
+	 */
+	public Direction bestMove(long board) {
+		List<Direction> moves = new ArrayList<>(Direction.VALUES.length);
+		List<Search> searches = new ArrayList<>(Direction.VALUES.length);
+		for(Direction direction : Direction.VALUES) {
+			long moved = Bitboard.move(board, direction);
+			if(moved != board) {
+				moves.add(direction);
+				searches.add(search(direction, moved));
+			}
+		}
+		if(moves.size() <= 1) {
+			return moves.isEmpty() ? null : moves.get(0);
+		}
+
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+		Direction best = moves.get(0);
+		for(int depth = 1; depth <= MAX_DEPTH; depth++) {
+			List<Future<Double>> results = null;
+			if(parallel) {
+				results = new ArrayList<>(searches.size());
+				for(Search search : searches) {
+					int d = depth;
+					results.add(ForkJoinPool.commonPool().submit(() -> search.run(d, deadline)));
+				}
+			}
+
+			double bestScore = Double.NEGATIVE_INFINITY;
+			Direction bestAtDepth = null;
+			try {
+				for(int i = 0; i < searches.size(); i++) {
+					double score = results != null ? results.get(i).get() : searches.get(i).run(depth, deadline);
+					if(score > bestScore) {
+						bestScore = score;
+						bestAtDepth = moves.get(i);
+					}
+				}
+			} catch (OutOfTime e) {
+				break;
+			} catch (ExecutionException e) {
+				cancel(searches, results);
+				if(e.getCause() instanceof OutOfTime) break;
+				throw new IllegalStateException(e.getCause());
+			} catch (InterruptedException e) {
+				cancel(searches, results);
+				Thread.currentThread().interrupt();
+				break;
+			}
+
+			best = bestAtDepth;
+			if(System.nanoTime() >= deadline) break;
+		}
+		return best;
+	}
+
+	private Search search(Direction direction, long root) {
+		Search search = searches[direction.ordinal()];
+		if(search == null) {
+			search = searches[direction.ordinal()] = new Search();
+		}
+		search.reset(root);
+		return search;
+	}
+
+	/**
+	 * Stops the searches still running and waits for them to, since the next move reuses them.
+	 */
+	private static void cancel(List<Search> searches, List<Future<Double>> results) {
+		for(Search search : searches) {
+			search.cancelled = true;
+		}
+		boolean interrupted = false;
+		for(Future<Double> result : results) {
+			while(true) {
+				try {
+					result.get();
+					break;
+				} catch (ExecutionException e) {
+					break;
+				} catch (InterruptedException e) {
+					// they stop within a clock check, so it's not worth leaving them running
+					interrupted = true;
+				}
+			}
+		}
+		if(interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	public static double heuristic(long board) {
+		long transposed = Bitboard.transpose(board);
+		return HEURISTIC[(int) (board & 0xFFFF)] + HEURISTIC[(int) ((board >>> 16) & 0xFFFF)]
+				+ HEURISTIC[(int) ((board >>> 32) & 0xFFFF)] + HEURISTIC[(int) (board >>> 48)]
+				+ HEURISTIC[(int) (transposed & 0xFFFF)] + HEURISTIC[(int) ((transposed >>> 16) & 0xFFFF)]
+				+ HEURISTIC[(int) ((transposed >>> 32) & 0xFFFF)] + HEURISTIC[(int) (transposed >>> 48)];
+	}
+
+	/**
+	 * One root move's search, only ever run by one thread at a time.
+	 */
+	private static final class Search {
+		private static final int CACHE_BITS = 16;
+
+		private long root;
+
+		/**
+		 * direct-mapped cache of chance nodes: the board, how deep it was searched and the result, which holds for that
+		 * board whichever root it was reached from, so it's kept between moves
+		 */
+		private final long[] cachedBoards = new long[1 << CACHE_BITS];
+		private final byte[] cachedDepths = new byte[1 << CACHE_BITS];
+		private final double[] cachedScores = new double[1 << CACHE_BITS];
+
+		private long deadline;
+		private int untilClock;
+		private volatile boolean cancelled;
+
+		private void reset(long root) {
+			this.root = root;
+			this.cancelled = false;
+		}
+
+		private double run(int depth, long deadline) {
+			if(cancelled) throw OutOfTime.INSTANCE;
+			this.deadline = deadline;
+			this.untilClock = CLOCK_INTERVAL;
+			return chance(root, depth, 1);
+		}
+
+		private double max(long board, int depth, double probability) {
+			if(--untilClock == 0) {
+				untilClock = CLOCK_INTERVAL;
+				if(cancelled || System.nanoTime() >= deadline) throw OutOfTime.INSTANCE;
+			}
+
+			double best = 0;
+			for(Direction direction : Direction.VALUES) {
+				long moved = Bitboard.move(board, direction);
+				if(moved != board) {
+					best = Math.max(best, chance(moved, depth, probability));
+				}
+			}
+			return best;
+		}
+
+		private double chance(long board, int depth, double probability) {
+			if(depth == 0 || probability < PROBABILITY_CUTOFF) {
+				return heuristic(board);
+			}
+
+			int slot = (int) ((board * 0x9E3779B97F4A7C15L) >>> (64 - CACHE_BITS));
+			if(cachedBoards[slot] == board && cachedDepths[slot] >= depth) {
+				return cachedScores[slot];
+			}
+
+			int empty = Bitboard.countEmpty(board);
+			double each = probability / empty;
+			double total = 0;
+			for(int shift = 0; shift < 64; shift += 4) {
+				if(((board >>> shift) & 0xF) != 0) continue;
+				total += (1 - Board.FOUR_CHANCE) * max(board | (1L << shift), depth - 1, each * (1 - Board.FOUR_CHANCE));
+				total += Board.FOUR_CHANCE * max(board | (2L << shift), depth - 1, each * Board.FOUR_CHANCE);
+			}
+			double score = total / empty;
+
+			cachedBoards[slot] = board;
+			cachedDepths[slot] = (byte) depth;
+			cachedScores[slot] = score;
+			return score;
+		}
+	}
+
+	private static final class OutOfTime extends RuntimeException {
+		@Serial
+		private static final long serialVersionUID = 1L;
+
+		private static final OutOfTime INSTANCE = new OutOfTime();
+
+		private OutOfTime() {
+			super(null, null, false, false);
+		}
+	}
+}
@@ -0,0 +1,196 @@
+package dev.rdh.twenty48;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Plays games of 2048 without a console on every core, writing one record per game, in order, as the batches finish.
+ * <p>
+ * Arguments: {@code [--games N] [--strategy random|greedy|ai] [--seed S] [--threads T] [--ai-millis MS] [--out FILE]}.
+ * A file ending in {@code .csv} gets a line per game, anything else gets big-endian binary records of
+ * {@code long seed, int score, byte maxExponent, int moves}.
+ * <p>
+ * Games are played in batches whose seeds come from the root seed in order, so the same arguments write the same file on any number of threads.
+ * The {@code ai} strategy searches on the thread playing the game, so {@code --threads} is all the cores it uses.
+ */
+public class Simulation {
+	private static final int BATCH_SIZE = 4096;
+
+	/**
+	 * how many batches a run is split into at least, where there are games enough, so a few long games still spread across threads
+	 */
+	private static final int MIN_BATCHES = 256;
+
+	public static void main(String[] args) {
+		long games = 100_000;
+		String strategyName = "random";
+		long seed = System.nanoTime();
+		int threads = Runtime.getRuntime().availableProcessors();
+		long aiMillis = 10;
+		Path out = null;
+
+		for(int i = 0; i + 1 < args.length; i += 2) {
+			String value = args[i + 1];
+			switch(args[i]) {
+				case "--games" -> games = Long.parseLong(value);
+				case "--strategy" -> strategyName = value;
+				case "--seed" -> seed = Long.parseLong(value);
+				case "--threads" -> threads = Integer.parseInt(value);
+				case "--ai-millis" -> aiMillis = Long.parseLong(value);
+				case "--out" -> out = Path.of(value);
+				default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+			}
+		}
+
+		try {
+			run(games, Strategy.byName(strategyName, aiMillis), seed, threads, out);
+		} catch(Exception e) {
+			e.printStackTrace(System.err);
+		}
+	}
+
+	public static void run(long games, Strategy strategy, long seed, int threads, Path out) throws IOException, InterruptedException, ExecutionException {
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		List<Future<Batch>> batches = new ArrayList<>();
+
+		// depends only on the number of games, so the batches, and their seeds, don't change with the thread count
+		int batchSize = (int) Math.max(1, Math.min(BATCH_SIZE, games / MIN_BATCHES));
+		SplittableRandom root = new SplittableRandom(seed);
+		for(long first = 0; first < games; first += batchSize) {
+			long batchSeed = root.nextLong();
+			int size = (int) Math.min(batchSize, games - first);
+			long firstGame = first;
+			batches.add(pool.submit(() -> Batch.play(strategy, firstGame, size, batchSeed)));
+		}
+
+		long start = System.nanoTime();
+		Summary summary = new Summary();
+		boolean csv = out != null && out.getFileName().toString().endsWith(".csv");
+		try(BufferedWriter text = csv ? Files.newBufferedWriter(out) : null;
+			DataOutputStream binary = out != null && !csv ? new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(out), 1 << 16)) : null) {
+			if(text != null) {
+				text.write("game,seed,score,max_tile,moves\n");
+			}
+
+			for(int i = 0; i < batches.size(); i++) {
+				// waits for the batches in order, so a batch finishing early is held until the ones before it are written
+				Batch batch = batches.get(i).get();
+				batches.set(i, null);
+				summary.add(batch);
+				if(text != null) {
+					batch.writeCsv(text);
+				} else if(binary != null) {
+					batch.writeBinary(binary);
+				}
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+
+		summary.print(System.nanoTime() - start);
+	}
+
+	/**
+	 * Plays one game to the end.
+	 *
+	 * @return the score, max exponent and move count packed as {@code score << 32 | maxExponent << 24 | moves}
+	 */
+	private static long play(Strategy strategy, long seed) {
+		SplittableRandom random = new SplittableRandom(seed);
+		Board board = new Board(random.split());
+		while(board.canMove()) {
+			board.move(strategy.choose(board.getBits(), random));
+		}
+		return (long) board.getScore() << 32 | (long) Bitboard.maxExponent(board.getBits()) << 24 | board.getMoves();
+	}
+
+	private static final class Batch {
+		private final long firstGame;
+		private final long[] seeds;
+		private final int[] scores;
+		private final byte[] maxExponents;
+		private final int[] moves;
+
+		private Batch(long firstGame, int size) {
+			this.firstGame = firstGame;
+			this.seeds = new long[size];
+			this.scores = new int[size];
+			this.maxExponents = new byte[size];
+			this.moves = new int[size];
+		}
+
+		private static Batch play(Strategy strategy, long firstGame, int size, long seed) {
+			Batch batch = new Batch(firstGame, size);
+			SplittableRandom random = new SplittableRandom(seed);
+			for(int i = 0; i < size; i++) {
+				long gameSeed = random.nextLong();
+				long result = Simulation.play(strategy, gameSeed);
+				batch.seeds[i] = gameSeed;
+				batch.scores[i] = (int) (result >>> 32);
+				batch.maxExponents[i] = (byte) (result >>> 24);
+				batch.moves[i] = (int) (result & 0xFFFFFF);
+			}
+			return batch;
+		}
+
+		private void writeCsv(BufferedWriter out) throws IOException {
+			StringBuilder sb = new StringBuilder(seeds.length * 48);
+			for(int i = 0; i < seeds.length; i++) {
+				sb.append(firstGame + i).append(',')
+						.append(seeds[i]).append(',')
+						.append(scores[i]).append(',')
+						.append(1 << maxExponents[i]).append(',')
+						.append(moves[i]).append('\n');
+			}
+			out.append(sb);
+		}
+
+		private void writeBinary(DataOutputStream out) throws IOException {
+			for(int i = 0; i < seeds.length; i++) {
+				out.writeLong(seeds[i]);
+				out.writeInt(scores[i]);
+				out.writeByte(maxExponents[i]);
+				out.writeInt(moves[i]);
+			}
+		}
+	}
+
+	private static final class Summary {
+		private long games, totalScore, totalMoves;
+		private int bestScore;
+		private final long[] maxTiles = new long[Bitboard.MAX_EXPONENT + 1];
+
+		private void add(Batch batch) {
+			for(int i = 0; i < batch.seeds.length; i++) {
+				games++;
+				totalScore += batch.scores[i];
+				totalMoves += batch.moves[i];
+				bestScore = Math.max(bestScore, batch.scores[i]);
+				maxTiles[batch.maxExponents[i]]++;
+			}
+		}
+
+		private void print(long nanos) {
+			double minutes = nanos / 60e9;
+			System.out.printf("%d games in %.2fs (%.0f games/min)%n", games, nanos / 1e9, games / minutes);
+			System.out.printf("mean score %.1f, best score %d, mean moves %.1f%n",
+					(double) totalScore / games, bestScore, (double) totalMoves / games);
+			System.out.println("max tile distribution:");
+			for(int exponent = 1; exponent < maxTiles.length; exponent++) {
+				if(maxTiles[exponent] == 0) continue;
+				System.out.printf("%8d %10d %6.2f%%%n", 1 << exponent, maxTiles[exponent], 100.0 * maxTiles[exponent] / games);
+			}
+		}
+	}
+}
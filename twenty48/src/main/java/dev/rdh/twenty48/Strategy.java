@@ -0,0 +1,71 @@
+package dev.rdh.twenty48;
+
+import java.util.SplittableRandom;
+
+/**
+ * Decides moves for games played without a player, see {@link Simulation}.
+ */
+@FunctionalInterface
+public interface Strategy {
+	/**
+	 * any move that changes the board, chosen uniformly
+	 */
+	Strategy RANDOM = (board, random) -> {
+		int legal = 0;
+		for(int i = 0; i < 4; i++) {
+			if(Bitboard.move(board, Direction.VALUES[i]) != board) {
+				legal |= 1 << i;
+			}
+		}
+		if(legal == 0) return null;
+
+		for(int skip = random.nextInt(Integer.bitCount(legal)); skip > 0; skip--) {
+			legal &= legal - 1;
+		}
+		return Direction.VALUES[Integer.numberOfTrailingZeros(legal)];
+	};
+
+	/**
+	 * the move that scores the most right away, then the one leaving the most empty cells
+	 */
+	Strategy GREEDY = (board, random) -> {
+		Direction best = null;
+		long bestValue = Long.MIN_VALUE;
+		for(Direction direction : Direction.VALUES) {
+			long moved = Bitboard.move(board, direction);
+			if(moved == board) continue;
+
+			long value = (long) Bitboard.moveScore(board, direction) << 5 | Bitboard.countEmpty(moved);
+			if(value > bestValue) {
+				bestValue = value;
+				best = direction;
+			}
+		}
+		return best;
+	};
+
+	/**
+	 * @return the move to make, or {@code null} if nothing can move
+	 */
+	Direction choose(long board, SplittableRandom random);
+
+	/**
+	 * expectimax search, run on the calling thread, so playing on every core doesn't also fill the common pool
+	 */
+	static Strategy ai(long budgetMillis) {
+		ThreadLocal<Expectimax> ai = ThreadLocal.withInitial(() -> new Expectimax(budgetMillis, false));
+		return (board, random) -> ai.get().bestMove(board);
+	}
+
+	/**
+	 * @param name {@code random}, {@code greedy} or {@code ai}
+	 */
+	static Strategy byName(String name, long aiBudgetMillis) {
+		return switch(name.toLowerCase()) {
+			case "random" -> RANDOM;
+			case "greedy" -> GREEDY;
+			case "ai" -> ai(aiBudgetMillis);
+			default -> throw new IllegalArgumentException("Unknown strategy: " + name);
+		};
+	}
+}
@@ -0,0 +1,92 @@
+package dev.rdh.twenty48;
+
+import dev.rdh.games.Screen;
+
+import java.util.Arrays;
+
+/**
+ * The glyph rows and colours of every tile, built once so drawing a tile only copies them onto the screen.
+ * <p>
+ * Tiles up to 2048 use the original game's colours. Bigger ones get generated colours,
+ * up to {@link #MAX_EXPONENT} even though a {@link Bitboard} stops short of that.
+ */
+final class TileCache {
+	private TileCache() {}
+
+	public static final int WIDTH = 7, HEIGHT = 3;
+	public static final int MAX_EXPONENT = 17;
+
+	/**
+	 * background colours for empty up to 2048
+	 */
+	private static final int[] CLASSIC = {
+			0xCDC1B4, 0xEEE4DA, 0xEDE0C8, 0xF2B179, 0xF59563, 0xF67C5F,
+			0xF65E3B, 0xEDCF72, 0xEDCC61, 0xEDC850, 0xEDC53F, 0xEDC22E,
+	};
+
+	private static final int DARK_TEXT = Screen.rgb(0x776E65);
+	private static final int LIGHT_TEXT = Screen.rgb(0xF9F6F2);
+
+	private static final char[] BLANK = new char[WIDTH];
+
+	private static final char[][] LABELS = new char[MAX_EXPONENT + 1][];
+	private static final int[] FOREGROUNDS = new int[MAX_EXPONENT + 1];
+	private static final int[] BACKGROUNDS = new int[MAX_EXPONENT + 1];
+
+	static {
+		Arrays.fill(BLANK, ' ');
+		for(int exponent = 0; exponent <= MAX_EXPONENT; exponent++) {
+			if(exponent == 0) {
+				LABELS[exponent] = BLANK;
+			} else {
+				String value = Integer.toString(1 << exponent);
+				char[] label = BLANK.clone();
+				value.getChars(0, value.length(), label, (WIDTH - value.length()) / 2);
+				LABELS[exponent] = label;
+			}
+
+			BACKGROUNDS[exponent] = Screen.rgb(exponent < CLASSIC.length ? CLASSIC[exponent] : generated(exponent));
+			FOREGROUNDS[exponent] = exponent <= 2 ? DARK_TEXT : LIGHT_TEXT;
+		}
+	}
+
+	/**
+	 * dark colours stepping round the hue wheel, so neighbouring big tiles still look different
+	 */
+	private static int generated(int exponent) {
+		double hue = ((exponent - CLASSIC.length) * 0.15 + 0.75) % 1.0;
+		return hsv(hue, 0.55, 0.45);
+	}
+
+	private static int hsv(double hue, double saturation, double value) {
+		double h = hue * 6;
+		int sector = (int) h;
+		double f = h - sector;
+		double p = value * (1 - saturation), q = value * (1 - saturation * f), t = value * (1 - saturation * (1 - f));
+		double r, g, b;
+		switch(sector) {
+			case 0 -> { r = value; g = t; b = p; }
+			case 1 -> { r = q; g = value; b = p; }
+			case 2 -> { r = p; g = value; b = t; }
+			case 3 -> { r = p; g = q; b = value; }
+			case 4 -> { r = t; g = p; b = value; }
+			default -> { r = value; g = p; b = q; }
+		}
+		return (int) (r * 255) << 16 | (int) (g * 255) << 8 | (int) (b * 255);
+	}
+
+	/**
+	 * @param line which of the tile's {@link #HEIGHT} rows, the label being in the middle one
+	 */
+	public static char[] row(int exponent, int line) {
+		return line == HEIGHT / 2 ? LABELS[exponent] : BLANK;
+	}
+
+	public static int foreground(int exponent) {
+		return FOREGROUNDS[exponent];
+	}
+
+	public static int background(int exponent) {
+		return BACKGROUNDS[exponent];
+	}
+}
@@ -1,37 +1,196 @@
 package dev.rdh.twenty48;
 
 import dev.rdh.games.Console;
+import dev.rdh.games.Key;
+import dev.rdh.games.KeyEvent;
+import dev.rdh.games.Replay;
+import dev.rdh.games.ReplayWriter;
+import dev.rdh.games.SaveFile;
+import dev.rdh.games.Screen;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class Twenty48 {
+	/**
+	 * the name games are recorded under
+	 */
+	public static final String REPLAY_NAME = "2048";
+
+	/**
+	 * where the game is saved when the player quits, to carry on with next time
+	 */
+	private static final SaveFile SAVE = new SaveFile("2048", 0x32303438, 1); // 2048
+
 	public static void main(String[] args) {
-		Board board = new Board();
+		if(args.length > 0 && args[0].equals("simulate")) {
+			Simulation.main(Arrays.copyOfRange(args, 1, args.length));
+			return;
+		}
+
 		try(Console console = new Console()) {
-			console.echo(false);
-			console.clearScreen();
-			console.hideCursor();
-
-			a: while(true) {
-				board.display(console);
-				int key = console.getIn().read();
-
-				switch(key) {
-					case 'q' -> { break a; }
-					case 'w' -> board.moveUp();
-					case 'a' -> board.moveLeft();
-					case 's' -> board.moveDown();
-					case 'd' -> board.moveRight();
-				}
+			play(console);
+		} catch(Exception e) {
+			e.printStackTrace(System.err);
+		}
+	}
+
+	/**
+	 * the key for each {@link Direction}, by ordinal, which AI moves are recorded as
+	 */
+	private static final Key[] ARROWS = { Key.UP, Key.DOWN, Key.LEFT, Key.RIGHT };
+
+	/**
+	 * Runs games on a console that is already open, until the player quits or the input ends.
+	 */
+	public static void play(Console console) {
+		Config config = Config.load();
+		Config.showProblems(console);
+
+		long seed = ThreadLocalRandom.current().nextLong();
+		SplittableRandom random = new SplittableRandom(seed);
+		boolean saving = console.canSave();
+		Board saved = saving ? resume(random) : null;
 
-				if(board.isFull()) {
-					console.println("Game Over!");
-					console.waitForEnter();
-					board = new Board();
+		// a resumed game didn't start from the seed, so it can't be replayed from it
+		ReplayWriter recorder = null;
+		if(saved == null) {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			try(DataOutputStream out = new DataOutputStream(bytes)) {
+				config.write(out);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			recorder = ReplayWriter.start(console, REPLAY_NAME, seed, bytes.toByteArray());
+		}
+		console.setRecorder(recorder);
+		try {
+			Board board = play(console, config, random, saved, false);
+			if(saving && board.canMove() && board.getMoves() > 0) {
+				SAVE.write(board.snapshot());
+			} else if(saving) {
+				SAVE.delete();
+			}
+		} finally {
+			console.setRecorder(null);
+			if(recorder != null) {
+				recorder.close();
+			}
+		}
+	}
+
+	/**
+	 * Plays a recorded session back on {@code console}, whose input should come from {@link Replay#input(boolean)}.
+	 *
+	 * @return how the last game ended, to compare between runs
+	 */
+	public static String replay(Console console, Replay replay) throws IOException {
+		Config config = Config.read(replay.config());
+		Board board = play(console, config, new SplittableRandom(replay.getSeed()), null, true);
+		return "score " + board.getScore() + ", max tile " + (1 << Bitboard.maxExponent(board.getBits()))
+				+ ", " + board.getMoves() + " moves, " + replay.getKeyCount() + " keys";
+	}
+
+	/**
+	 * @return the game saved when the player last quit, or {@code null} if there isn't one that can be read
+	 */
+	private static Board resume(SplittableRandom random) {
+		try {
+			ByteBuffer saved = SAVE.read();
+			return saved == null ? null : Board.fromSnapshot(saved, random.split());
+		} catch (IOException | RuntimeException e) {
+			SAVE.delete();
+			return null;
+		}
+	}
+
+	/**
+	 * @param random decides every tile spawned in the session, one game after another
+	 * @param resumed the game to carry on with, or {@code null} to start a new one
+	 * @param replaying whether the keys come from a replay, in which case moves the AI made were recorded as arrow keys
+	 * and the AI itself is never asked, since how far it searches depends on time
+	 * @return the board of the game being played when the session ended
+	 */
+	private static Board play(Console console, Config config, SplittableRandom random, Board resumed, boolean replaying) {
+		Board board = resumed != null ? resumed : new Board(random.split());
+		Expectimax ai = new Expectimax(config.aiMillis);
+		boolean autoplay = false;
+		String status = resumed != null ? "Resumed your saved game" : null;
+		console.echo(false);
+		console.clearScreen();
+		console.hideCursor();
+		Screen screen = console.screen(Board.WIDTH, Board.HEIGHT + 1);
+
+		while(true) {
+			screen.clear();
+			board.draw(screen);
+			if(status != null) {
+				screen.print(Board.HEIGHT, 0, status);
+			}
+			screen.render();
+			status = null;
+
+			KeyEvent key = autoplay && !replaying ? console.pollKey() : console.readKey();
+			if(key == null) {
+				Direction move = ai.bestMove(board.getBits());
+				if(move == null) {
+					autoplay = false;
+				} else {
+					console.record(KeyEvent.of(ARROWS[move.ordinal()]));
+					board.move(move);
+				}
+			} else switch(key.getKey()) {
+				case EOF -> { return board; }
+				case UP -> board.moveUp();
+				case LEFT -> board.moveLeft();
+				case DOWN -> board.moveDown();
+				case RIGHT -> board.moveRight();
+				default -> {
+					char c = key.toChar();
+					if(c == config.quit) {
+						return board;
+					} else if(c == config.hint) {
+						if(replaying) {
+							status = "Hint: not shown in replays";
+						} else {
+							Direction move = ai.bestMove(board.getBits());
+							status = "Hint: " + (move == null ? "no moves left" : move.name().toLowerCase());
+						}
+					} else if(c == config.autoplay) {
+						autoplay = !autoplay;
+					} else if(c == '+') {
+						ai.setBudgetMillis(ai.getBudgetMillis() * 2);
+						status = "AI time per move: " + ai.getBudgetMillis() + "ms";
+					} else if(c == '-') {
+						ai.setBudgetMillis(Math.max(ai.getBudgetMillis() / 2, 1));
+						status = "AI time per move: " + ai.getBudgetMillis() + "ms";
+					} else if(config.useWASD) {
+						switch(c) {
+							case 'w' -> board.moveUp();
+							case 'a' -> board.moveLeft();
+							case 's' -> board.moveDown();
+							case 'd' -> board.moveRight();
+						}
+					}
 				}
+			}
 
-				console.print("\033[H");
+			if(!board.canMove()) {
+				screen.print(Board.HEIGHT, 0, "Game Over!");
+				screen.render();
+				console.waitForEnter();
+				if(console.isInputEnded()) {
+					return board;
+				}
+				board = new Board(random.split());
+				autoplay = false;
 			}
-		} catch(Exception e) {
-			e.printStackTrace(System.err);
 		}
 	}
 }